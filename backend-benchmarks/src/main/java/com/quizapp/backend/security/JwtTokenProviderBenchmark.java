@@ -0,0 +1,79 @@
+package com.quizapp.backend.security;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Token issue and validation. Redis is never reached: every token has a jti and the revocation filter is empty.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final int DISTINCT_TOKENS = 1024;
+
+    private JwtTokenProvider provider;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RevokedTokenRegistry revokedTokens = new RevokedTokenRegistry(
+                new StringRedisTemplate(), new RedisMessageListenerContainer(), new ThreadPoolTaskScheduler(),
+                100_000, 0.001);
+        // As after the startup load found no revocations, so checks stay on the Bloom filter
+        ReflectionTestUtils.setField(revokedTokens, "loaded", true);
+        provider = new JwtTokenProvider(new StringRedisTemplate(), revokedTokens);
+
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        ReflectionTestUtils.setField(provider, "jwtSecret", Base64.getEncoder().encodeToString(secret));
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "jwtRefreshExpirationInMs", 604_800_000L);
+        ReflectionTestUtils.setField(provider, "verifiedTokenCacheSize", 10_000L);
+        provider.init();
+
+        token = provider.generateToken("benchmark");
+        tokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            tokens[i] = provider.generateToken("user" + i);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return provider.generateToken("benchmark");
+    }
+
+    // Steady state of the auth filter: the same bearer token seen again
+    @Benchmark
+    public Claims validateCached() {
+        return provider.getValidatedClaims(token);
+    }
+
+    // Full HMAC verification and claims parsing, bypassing the verified-token cache
+    @Benchmark
+    public boolean validateUncached() {
+        return provider.validateRefreshToken(tokens[next++ & (DISTINCT_TOKENS - 1)]);
+    }
+}
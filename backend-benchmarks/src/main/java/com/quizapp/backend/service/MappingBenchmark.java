@@ -0,0 +1,70 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.dto.DetailedQuizAttemptDTO;
+import com.quizapp.backend.dto.QuizAttemptDTO;
+import com.quizapp.backend.dto.QuizDTO;
+import com.quizapp.backend.model.Quiz;
+import com.quizapp.backend.model.QuizAttempt;
+import com.quizapp.backend.model.enums.Difficulty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.objenesis.ObjenesisStd;
+
+import java.util.concurrent.TimeUnit;
+
+// Entity -> DTO mapping and difficulty calculation; the services are created without their
+// dependencies, since none of these methods touch a repository
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"10", "50", "200"})
+    private int questionCount;
+
+    private QuizAttemptService quizAttemptService;
+    private QuizService quizService;
+    private Quiz quiz;
+    private QuizAttempt attempt;
+
+    @Setup
+    public void setUp() {
+        ObjenesisStd objenesis = new ObjenesisStd();
+        quizAttemptService = objenesis.newInstance(QuizAttemptService.class);
+        quizService = objenesis.newInstance(QuizService.class);
+        quiz = QuizFixtures.quiz(questionCount);
+        attempt = QuizFixtures.completedAttempt(quiz, QuizFixtures.user());
+    }
+
+    @Benchmark
+    public QuizAttemptDTO attemptMapToDTO() {
+        return quizAttemptService.mapToDTO(attempt);
+    }
+
+    @Benchmark
+    public DetailedQuizAttemptDTO attemptMapToDetailedDTO() {
+        return quizAttemptService.mapToDetailedDTO(attempt);
+    }
+
+    @Benchmark
+    public QuizDTO quizMapToDTO() {
+        return quizService.mapToDTO(quiz);
+    }
+
+    @Benchmark
+    public Difficulty calculateQuizDifficulty() {
+        return quizService.calculateQuizDifficulty(quiz.getQuestions());
+    }
+}
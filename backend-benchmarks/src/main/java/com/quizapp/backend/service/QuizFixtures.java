@@ -0,0 +1,147 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.model.Option;
+import com.quizapp.backend.model.Question;
+import com.quizapp.backend.model.Quiz;
+import com.quizapp.backend.model.QuizAttempt;
+import com.quizapp.backend.model.User;
+import com.quizapp.backend.model.UserAnswer;
+import com.quizapp.backend.model.enums.AttemptStatus;
+import com.quizapp.backend.model.enums.Difficulty;
+import com.quizapp.backend.model.enums.QuestionType;
+import com.quizapp.backend.model.enums.Role;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Deterministic in-memory quizzes and attempts, so benchmark runs are comparable
+final class QuizFixtures {
+
+    static final int OPTIONS_PER_QUESTION = 4;
+    private static final Difficulty[] DIFFICULTIES = {Difficulty.EASY, Difficulty.MEDIUM, Difficulty.HARD};
+
+    private QuizFixtures() {
+    }
+
+    static User user() {
+        return User.builder()
+                .id(1L)
+                .username("benchmark")
+                .email("benchmark@example.com")
+                .password("unused")
+                .firstName("Bench")
+                .lastName("Mark")
+                .role(Role.USER)
+                .build();
+    }
+
+    static Quiz quiz(int questionCount) {
+        Random random = new Random(42);
+        Quiz quiz = Quiz.builder()
+                .id(1L)
+                .title("Benchmark quiz")
+                .description("Generated for benchmarks")
+                .timeLimitMinutes(30)
+                .category("Benchmarks")
+                .difficulty(Difficulty.MEDIUM)
+                .createdBy(user())
+                .build();
+
+        List<Question> questions = new ArrayList<>(questionCount);
+        long optionId = 1;
+        for (int q = 1; q <= questionCount; q++) {
+            Question question = Question.builder()
+                    .id((long) q)
+                    .quiz(quiz)
+                    .text("Question " + q)
+                    .questionType(q % 5 == 0 ? QuestionType.TRUE_FALSE : QuestionType.MULTIPLE_CHOICE)
+                    .difficulty(DIFFICULTIES[random.nextInt(DIFFICULTIES.length)])
+                    .explanation("Explanation " + q)
+                    .attempts(0)
+                    .correctSelections(0)
+                    .build();
+            List<Option> options = new ArrayList<>(OPTIONS_PER_QUESTION);
+            int correct = random.nextInt(OPTIONS_PER_QUESTION);
+            for (int o = 0; o < OPTIONS_PER_QUESTION; o++) {
+                options.add(Option.builder()
+                        .id(optionId++)
+                        .question(question)
+                        .optionText("Option " + o)
+                        .isCorrect(o == correct || (q % 7 == 0 && o == (correct + 1) % OPTIONS_PER_QUESTION))
+                        .build());
+            }
+            question.setOptions(options);
+            questions.add(question);
+        }
+        quiz.setQuestions(questions);
+        return quiz;
+    }
+
+    static AnswerKey answerKey(Quiz quiz) {
+        Map<Long, AnswerKey.Entry> entries = new HashMap<>();
+        for (Question question : quiz.getQuestions()) {
+            List<Long> correct = question.getOptions().stream()
+                    .filter(Option::isCorrect)
+                    .map(Option::getId)
+                    .toList();
+            entries.put(question.getId(), new AnswerKey.Entry(question.getText(), AnswerKey.normalize(correct)));
+        }
+        return new AnswerKey(quiz.getId(), entries);
+    }
+
+    // Roughly two thirds of the answers are correct
+    static List<List<Long>> selections(Quiz quiz) {
+        Random random = new Random(7);
+        List<List<Long>> selections = new ArrayList<>(quiz.getQuestions().size());
+        for (Question question : quiz.getQuestions()) {
+            if (random.nextInt(3) > 0) {
+                selections.add(question.getOptions().stream().filter(Option::isCorrect).map(Option::getId).toList());
+            } else {
+                selections.add(List.of(question.getOptions().get(random.nextInt(OPTIONS_PER_QUESTION)).getId()));
+            }
+        }
+        return selections;
+    }
+
+    static QuizAttempt inProgressAttempt(Quiz quiz, User user) {
+        return QuizAttempt.builder()
+                .id(1L)
+                .quiz(quiz)
+                .user(user)
+                .startedAt(LocalDateTime.now().minusMinutes(5))
+                .status(AttemptStatus.IN_PROGRESS)
+                .score(0)
+                .timeTakenSeconds(0)
+                .build();
+    }
+
+    static QuizAttempt completedAttempt(Quiz quiz, User user) {
+        QuizAttempt attempt = inProgressAttempt(quiz, user);
+        List<List<Long>> selections = selections(quiz);
+        AnswerKey key = answerKey(quiz);
+        int score = 0;
+        for (int i = 0; i < quiz.getQuestions().size(); i++) {
+            Question question = quiz.getQuestions().get(i);
+            boolean correct = key.get(question.getId()).matches(AnswerKey.normalize(selections.get(i)));
+            if (correct) {
+                score++;
+            }
+            attempt.getUserAnswers().add(UserAnswer.builder()
+                    .quizAttempt(attempt)
+                    .question(question)
+                    .selectedOptionIds(new ArrayList<>(selections.get(i)))
+                    .isCorrect(correct)
+                    .build());
+        }
+        attempt.setScore(score);
+        attempt.setMaxPossibleScore(quiz.getQuestions().size());
+        attempt.setCompletedAt(LocalDateTime.now());
+        attempt.setTimeTakenSeconds(300);
+        attempt.setStatus(AttemptStatus.COMPLETED);
+        return attempt;
+    }
+}
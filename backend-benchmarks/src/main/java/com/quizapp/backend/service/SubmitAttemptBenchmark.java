@@ -0,0 +1,116 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.dto.AnswerSubmissionDTO;
+import com.quizapp.backend.dto.QuizResultDTO;
+import com.quizapp.backend.dto.SubmissionDTO;
+import com.quizapp.backend.model.Question;
+import com.quizapp.backend.model.Quiz;
+import com.quizapp.backend.model.User;
+import com.quizapp.backend.repository.QuestionRepository;
+import com.quizapp.backend.repository.QuizAttemptRepository;
+import com.quizapp.backend.repository.QuizRepository;
+import com.quizapp.backend.repository.UserAnswerRepository;
+import com.quizapp.backend.repository.UserRepository;
+import com.quizapp.backend.repository.UserStatsRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// Grading path of QuizAttemptService.submitAttempt with repositories stubbed out, plus the bare answer-key loop
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubmitAttemptBenchmark {
+
+    @Param({"10", "50", "200"})
+    private int questionCount;
+
+    private QuizAttemptService service;
+    private SubmissionDTO submission;
+    private AnswerKey answerKey;
+
+    @Setup
+    public void setUp() {
+        Quiz quiz = QuizFixtures.quiz(questionCount);
+        User user = QuizFixtures.user();
+        answerKey = QuizFixtures.answerKey(quiz);
+        Map<Long, Question> questionsById = quiz.getQuestions().stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+
+        QuizAttemptRepository attemptRepository = stub(QuizAttemptRepository.class);
+        QuestionRepository questionRepository = stub(QuestionRepository.class);
+        UserAnswerRepository userAnswerRepository = stub(UserAnswerRepository.class);
+        AnswerKeyCache answerKeyCache = stub(AnswerKeyCache.class);
+        when(attemptRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.of(QuizFixtures.inProgressAttempt(quiz, user)));
+        when(attemptRepository.endIfInProgress(anyLong(), any(), any())).thenReturn(1);
+        when(attemptRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userAnswerRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(questionRepository.getReferenceById(anyLong()))
+                .thenAnswer(invocation -> questionsById.get(invocation.<Long>getArgument(0)));
+        when(answerKeyCache.get(anyLong())).thenReturn(answerKey);
+
+        service = new QuizAttemptService(attemptRepository, stub(QuizRepository.class), stub(UserRepository.class),
+                userAnswerRepository, questionRepository, answerKeyCache, stub(RedisLeaderboard.class),
+                stub(UserStatsRepository.class), stub(QuestionStatsCollector.class));
+
+        List<List<Long>> selections = QuizFixtures.selections(quiz);
+        List<AnswerSubmissionDTO> answers = new ArrayList<>(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            answers.add(AnswerSubmissionDTO.builder()
+                    .questionId(quiz.getQuestions().get(i).getId())
+                    .selectedOptionIds(selections.get(i))
+                    .build());
+        }
+        submission = SubmissionDTO.builder().attemptId(1L).answers(answers).build();
+    }
+
+    @Benchmark
+    public QuizResultDTO submitAttempt() {
+        return service.submitAttempt(1L, submission);
+    }
+
+    @Benchmark
+    public int gradeWithAnswerKey(Blackhole blackhole) {
+        int score = 0;
+        for (AnswerSubmissionDTO answer : submission.getAnswers()) {
+            long[] selected = AnswerKey.normalize(answer.getSelectedOptionIds());
+            if (answerKey.get(answer.getQuestionId()).matches(selected)) {
+                score++;
+            }
+            blackhole.consume(selected);
+        }
+        return score;
+    }
+
+    // Stub-only: a regular mock records every invocation, which would grow without bound over the run
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,19 @@
+package com.quizapp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// JMH entry point that writes JSON results by default, so runs can be diffed against a baseline
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(List.of(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.addAll(List.of("-rf", "json", "-rff", "jmh-result.json"));
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(String[]::new));
+    }
+}
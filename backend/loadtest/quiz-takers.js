@@ -0,0 +1,117 @@
+// k6 scenario: N concurrent quiz-takers repeatedly browse, start, submit and check the leaderboard.
+//
+// Run it once per configuration being compared, against the same database/Redis:
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=5000 --summary-export=summary-<config>.json loadtest/quiz-takers.js
+//
+// Start the app with APP_RATE_LIMIT_ENABLED=false, otherwise the per-IP login/register buckets
+// throttle the run. At least one published quiz must exist.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Trend, Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '5000', 10);
+const RUN_ID = __ENV.RUN_ID || `${Date.now()}`;
+const PASSWORD = 'LoadTest#2024';
+
+const startLatency = new Trend('quiz_start_latency', true);
+const submitLatency = new Trend('quiz_submit_latency', true);
+const leaderboardLatency = new Trend('leaderboard_latency', true);
+const rejected = new Counter('rejected_503');
+
+export const options = {
+    scenarios: {
+        quiz_takers: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '2m', target: VUS },
+                { duration: '5m', target: VUS },
+                { duration: '30s', target: 0 },
+            ],
+            gracefulRampDown: '30s',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        quiz_start_latency: ['p(95)<500', 'p(99)<1500'],
+        quiz_submit_latency: ['p(95)<800', 'p(99)<2000'],
+        leaderboard_latency: ['p(95)<300'],
+    },
+};
+
+const json = (token) => ({
+    headers: Object.assign({ 'Content-Type': 'application/json' },
+        token ? { Authorization: `Bearer ${token}` } : {}),
+});
+
+let accessToken = null;
+
+function login() {
+    const username = `lt_${RUN_ID}_${__VU}`;
+    const email = `${username}@loadtest.local`;
+    http.post(`${BASE_URL}/api/auth/register`,
+        JSON.stringify({ username, email, password: PASSWORD, firstName: 'Load', lastName: `Vu${__VU}` }), json());
+
+    for (let attempt = 0; attempt < 10; attempt++) {
+        const res = http.post(`${BASE_URL}/api/auth/login`, JSON.stringify({ email, password: PASSWORD }), json());
+        if (res.status === 200) {
+            return res.json('accessToken');
+        }
+        if (res.status === 503) {
+            // Login pool is shedding load; back off like a real client would
+            rejected.add(1);
+            sleep(1 + Math.random() * 2);
+            continue;
+        }
+        break;
+    }
+    return null;
+}
+
+export default function () {
+    if (!accessToken) {
+        accessToken = login();
+        if (!accessToken) {
+            sleep(1);
+            return;
+        }
+    }
+
+    const catalog = http.get(`${BASE_URL}/api/quizzes/catalog?published=true&size=20`, json(accessToken));
+    if (!check(catalog, { 'catalog 200': (r) => r.status === 200 })) {
+        return;
+    }
+    const quizzes = catalog.json('items') || [];
+    if (quizzes.length === 0) {
+        sleep(1);
+        return;
+    }
+    const quizId = quizzes[Math.floor(Math.random() * quizzes.length)].id;
+
+    const start = http.post(`${BASE_URL}/api/attempts/start`, JSON.stringify({ quizId }), json(accessToken));
+    startLatency.add(start.timings.duration);
+    if (!check(start, { 'start 200': (r) => r.status === 200 })) {
+        return;
+    }
+    const attemptId = start.json('attempt.id');
+    const questions = start.json('quiz.questions') || [];
+
+    // Think time while "answering"
+    sleep(1 + Math.random() * 3);
+
+    const answers = questions.map((q) => ({
+        questionId: q.id,
+        selectedOptionIds: q.options && q.options.length ? [q.options[Math.floor(Math.random() * q.options.length)].id] : [],
+    }));
+    const submit = http.post(`${BASE_URL}/api/attempts/${attemptId}/submit`,
+        JSON.stringify({ attemptId, answers }), json(accessToken));
+    submitLatency.add(submit.timings.duration);
+    check(submit, { 'submit 200': (r) => r.status === 200 });
+
+    const board = http.get(`${BASE_URL}/api/leaderboard?size=50`, json(accessToken));
+    leaderboardLatency.add(board.timings.duration);
+    check(board, { 'leaderboard 200': (r) => r.status === 200 });
+
+    sleep(1);
+}
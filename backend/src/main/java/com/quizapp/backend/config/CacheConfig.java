@@ -0,0 +1,62 @@
+package com.quizapp.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String GLOBAL_LEADERBOARD = "globalLeaderboard";
+    public static final String QUIZ_LEADERBOARD = "quizLeaderboard";
+    public static final String QUIZ_CATEGORIES = "quizCategories";
+
+    @Value("${app.cache.local.max-size:1000}")
+    private long localMaxSize;
+
+    @Value("${app.cache.local.ttl:30s}")
+    private Duration localTtl;
+
+    @Value("${app.cache.remote.ttl:2m}")
+    private Duration remoteTtl;
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory factory, StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        // Cached values are stored with JDK serialization, so cached DTOs must be Serializable
+        RedisTemplate<String, Object> valueTemplate = new RedisTemplate<>();
+        valueTemplate.setConnectionFactory(factory);
+        valueTemplate.setKeySerializer(RedisSerializer.string());
+        valueTemplate.setValueSerializer(RedisSerializer.java());
+        valueTemplate.afterPropertiesSet();
+
+        // Quiz leaderboard keys start with the quiz id, so one quiz's pages can be evicted on their own
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(
+                List.of(GLOBAL_LEADERBOARD, QUIZ_LEADERBOARD, QUIZ_CATEGORIES), Set.of(QUIZ_LEADERBOARD),
+                valueTemplate, stringRedisTemplate, localMaxSize, localTtl, remoteTtl);
+        // Evictions issued inside a transaction are applied after it commits
+        cacheManager.setTransactionAware(true);
+        redisMessageListenerContainer.addMessageListener(cacheManager,
+                new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        return cacheManager;
+    }
+
+    // Lets actuator bind cache.gets/puts/evictions/size for the two-level caches like any built-in cache type
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return TwoLevelCacheMetrics::new;
+    }
+}
@@ -0,0 +1,67 @@
+package com.quizapp.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Opt-in (app.datasource.concurrency-limit.enabled): a fail-fast limiter for when request concurrency isn't
+// capped by the Tomcat pool (virtual threads), so the small Hikari pool needs its own bound
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.concurrency-limit.enabled", havingValue = "true")
+public class DataSourceConcurrencyConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        // The permit is taken in getConnection() and held until close(); with open-in-view the request's
+        // EntityManager keeps the connection until the response is written, and the limiter is just a second queue
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException(
+                    "app.datasource.concurrency-limit.enabled requires spring.jpa.open-in-view=false");
+        }
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource) {
+                    return bean;
+                }
+                // Defaults to the pool size, so waiting happens on the fair semaphore rather than inside Hikari
+                int poolSize = bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                int maxConcurrent = environment.getProperty(
+                        "app.datasource.concurrency-limit.max-concurrent", Integer.class, poolSize);
+                Duration acquireTimeout = environment.getProperty(
+                        "app.datasource.concurrency-limit.acquire-timeout", Duration.class, Duration.ofSeconds(2));
+                return new ConcurrencyLimitingDataSource(dataSource, maxConcurrent, acquireTimeout);
+            }
+        };
+    }
+
+    // Queueing on the limiter, next to Hikari's own hikaricp.connections.* meters
+    @Bean
+    public MeterBinder concurrencyLimitingDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof ConcurrencyLimitingDataSource limiter)) {
+                return;
+            }
+            Gauge.builder("datasource.limiter.waiting", limiter, ConcurrencyLimitingDataSource::getWaitingCount)
+                    .description("Callers parked waiting for a connection permit")
+                    .register(registry);
+            Gauge.builder("datasource.limiter.in.use", limiter, ConcurrencyLimitingDataSource::getInUseCount)
+                    .description("Connection permits currently held")
+                    .register(registry);
+            Gauge.builder("datasource.limiter.max", limiter, ConcurrencyLimitingDataSource::getMaxConcurrent)
+                    .register(registry);
+            FunctionCounter.builder("datasource.limiter.timeouts", limiter, ConcurrencyLimitingDataSource::getTimeoutCount)
+                    .description("Callers that gave up waiting for a permit")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.quizapp.backend.config;
+
+import com.quizapp.backend.model.UserAnswer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Moves the user_answers id blocks past the rows already in the table before anything is inserted.
+// schema.sql only runs in prod and ddl-auto doesn't know about the block table, so it is created here too.
+// Inserting a block number only ever raises the AUTO_INCREMENT counter, so this is safe on every start.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorSeeder {
+
+    private static final String CREATE_SQL = "CREATE TABLE IF NOT EXISTS " + UserAnswer.ID_BLOCK_TABLE
+            + " (id BIGINT PRIMARY KEY AUTO_INCREMENT)";
+
+    private static final String SEED_SQL = "INSERT IGNORE INTO " + UserAnswer.ID_BLOCK_TABLE + " (id) "
+            + "SELECT COALESCE(MAX(id), 0) DIV " + UserAnswer.ID_BLOCK_SIZE + " + 1 FROM user_answers";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Injected so this runs after Hibernate has created or validated the tables
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void seed() {
+        try {
+            jdbcTemplate.execute(CREATE_SQL);
+            jdbcTemplate.update(SEED_SQL);
+        } catch (RuntimeException e) {
+            log.warn("Seeding {} failed: {}", UserAnswer.ID_BLOCK_TABLE, e.getMessage());
+        }
+    }
+}
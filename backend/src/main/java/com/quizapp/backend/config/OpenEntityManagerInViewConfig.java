@@ -0,0 +1,39 @@
+package com.quizapp.backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Open-in-view as Spring Boot registers it (which backs off once this bean exists), minus two paths where the
+// request-bound EntityManager would hold its connection far longer than any query runs:
+// - the async login, through the whole wait for the BCrypt pool until the async dispatch; with every
+//   container thread waiting on the connection pool, that dispatch never gets a thread and the pool starves
+// - the user directory export, for as long as the client takes to read it
+// Honours spring.jpa.open-in-view like Boot's own registration; the connection limiter needs it off so a
+// connection (and its permit) is held per transaction rather than for the whole request
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.open-in-view", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class OpenEntityManagerInViewConfig implements WebMvcConfigurer {
+
+    private static final String[] EXCLUDED_PATHS = { "/api/auth/login", "/api/admin/user-directory/export" };
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        return interceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor()).excludePathPatterns(EXCLUDED_PATHS);
+    }
+}
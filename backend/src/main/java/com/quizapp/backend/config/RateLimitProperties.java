@@ -0,0 +1,34 @@
+package com.quizapp.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-route token buckets, e.g. app.rate-limit.routes.login.path=/api/auth/login
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Route {
+        // Ant-style pattern matched against the request URI
+        private String path;
+        private String method = "POST";
+        // Burst size; the bucket refills completely over refillPeriod
+        private int capacity = 10;
+        private Duration refillPeriod = Duration.ofMinutes(1);
+        private KeyType key = KeyType.IP;
+    }
+
+    public enum KeyType {
+        IP,
+        // Authenticated user id, falling back to the client IP for anonymous callers
+        USER
+    }
+}
@@ -4,9 +4,11 @@ import com.quizapp.backend.security.JwtAuthenticationEntryPoint;
 import com.quizapp.backend.security.JwtTokenProvider;
 import com.quizapp.backend.service.UserDetailService;
 import com.quizapp.backend.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -30,16 +32,19 @@ public class SecurityConfig {
 
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtTokenProvider tokenProvider;
-    private final StringRedisTemplate redisTemplate;
     private final UserDetailService userDetailService;
+    private final MeterRegistry meterRegistry;
+
+    // Raising this upgrades existing hashes on their owners' next login
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
 
     public SecurityConfig(JwtAuthenticationEntryPoint unauthorizedHandler,
-            JwtTokenProvider tokenProvider,
-            StringRedisTemplate redisTemplate, UserDetailService userDetailService) {
+            JwtTokenProvider tokenProvider, UserDetailService userDetailService, MeterRegistry meterRegistry) {
         this.userDetailService = userDetailService;
+        this.meterRegistry = meterRegistry;
         this.unauthorizedHandler = unauthorizedHandler;
         this.tokenProvider = tokenProvider;
-        this.redisTemplate = redisTemplate;
     }
 
     @Bean
@@ -52,8 +57,10 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/auth/login", "/api/auth/register", "/api/auth/token/refresh").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
-                .requestMatchers("/api/quizzes/categories").permitAll()
+                .requestMatchers("/api/quizzes/categories", "/api/quizzes/categories/counts").permitAll()
                 .requestMatchers("/api/health").permitAll()
+                // Only reachable on the management port (management.server.port)
+                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                 .anyRequest().authenticated()
                 );
 
@@ -63,7 +70,7 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(tokenProvider, redisTemplate, userDetailService);
+        return new JwtAuthenticationFilter(tokenProvider, userDetailService, meterRegistry);
     }
 
     @Bean
@@ -73,7 +80,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -0,0 +1,64 @@
+package com.quizapp.backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Records how many SQL statements each route issues, so N+1 paths show up next to http.server.requests.
+// Async requests keep one count across the initial and async dispatch (and the executor threads in between,
+// via SqlStatementCounter.propagate), and are recorded once the last dispatch finishes.
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    private static final String COUNT_ATTRIBUTE = SqlStatementMetricsFilter.class.getName() + ".count";
+
+    private final MeterRegistry registry;
+
+    public SqlStatementMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AtomicInteger statements = (AtomicInteger) request.getAttribute(COUNT_ATTRIBUTE);
+        if (statements == null) {
+            statements = new AtomicInteger();
+            request.setAttribute(COUNT_ATTRIBUTE, statements);
+        }
+        SqlStatementCounter.start(statements);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.stop();
+            if (!request.isAsyncStarted()) {
+                record(request, statements.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int statements) {
+        // Route template rather than the raw path, to keep tag cardinality bounded
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements issued while handling a request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .serviceLevelObjectives(1, 5, 10, 25, 50, 100)
+                .register(registry)
+                .record(statements);
+    }
+}
@@ -0,0 +1,270 @@
+package com.quizapp.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caffeine L1 in front of a shared Redis L2.
+// clear() bumps a generation counter in Redis instead of scanning keys; other nodes drop their L1 via pub/sub.
+// A grouped cache keys entries as "group:rest" and keeps a generation per group too, so evictGroup() drops one
+// group's entries (one quiz's leaderboard pages) without touching the rest.
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    static final String KEY_PREFIX = "cache:";
+
+    private final String name;
+    private final Cache<Object, Object> local;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Duration remoteTtl;
+    private final TwoLevelCacheManager manager;
+    // Group generations last no longer than L1 entries, so a missed invalidation message is as stale as L1 gets
+    private final Cache<String, Long> groupGenerations;
+
+    private volatile long generation = -1;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    TwoLevelCache(String name, Cache<Object, Object> local, Cache<String, Long> groupGenerations,
+            RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, Duration remoteTtl,
+            TwoLevelCacheManager manager) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.groupGenerations = groupGenerations;
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.remoteTtl = remoteTtl;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+        try {
+            value = redisTemplate.opsForValue().get(remoteKey(key));
+        } catch (Exception e) {
+            log.warn("Cache {} L2 read failed: {}", name, e.getMessage());
+            value = null;
+        }
+        if (value != null) {
+            remoteHits.increment();
+            local.put(key, value);
+            return value;
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+        try {
+            T loaded = valueLoader.call();
+            put(key, loaded);
+            return loaded;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        local.put(key, value);
+        puts.increment();
+        try {
+            redisTemplate.opsForValue().set(remoteKey(key), value, remoteTtl);
+        } catch (Exception e) {
+            log.warn("Cache {} L2 write failed: {}", name, e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.invalidate(key);
+        invalidations.increment();
+        try {
+            redisTemplate.delete(remoteKey(key));
+            manager.publishEvict(name, key.toString());
+        } catch (Exception e) {
+            log.warn("Cache {} L2 evict failed: {}", name, e.getMessage());
+        }
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        invalidations.increment();
+        try {
+            Long next = stringRedisTemplate.opsForValue().increment(generationKey());
+            if (next != null) {
+                generation = next;
+                manager.publishClear(name, next);
+            }
+        } catch (Exception e) {
+            log.warn("Cache {} L2 clear failed: {}", name, e.getMessage());
+        }
+    }
+
+    // Drops every entry whose key starts with "group:"; only grouped caches key their L2 entries by group
+    public void evictGroup(String group) {
+        dropLocalGroup(group);
+        invalidations.increment();
+        if (groupGenerations == null) {
+            clear();
+            return;
+        }
+        try {
+            String key = groupGenerationKey(group);
+            Long next = stringRedisTemplate.opsForValue().increment(key);
+            // Outlives every entry written under the previous generation, so a reset to 1 can't revive them
+            stringRedisTemplate.expire(key, remoteTtl.multipliedBy(2));
+            if (next != null) {
+                groupGenerations.put(group, next);
+                manager.publishEvictGroup(name, group, next);
+            }
+        } catch (Exception e) {
+            log.warn("Cache {} L2 group evict failed: {}", name, e.getMessage());
+        }
+    }
+
+    // Invalidation broadcast from another node (or echoed from this one)
+    void onRemoteClear(long newGeneration) {
+        if (newGeneration > generation) {
+            generation = newGeneration;
+        }
+        local.invalidateAll();
+    }
+
+    void onRemoteEvict(String key) {
+        local.invalidate(key);
+    }
+
+    void onRemoteEvictGroup(String group, long newGeneration) {
+        if (groupGenerations != null) {
+            groupGenerations.asMap().merge(group, newGeneration, Math::max);
+        }
+        dropLocalGroup(group);
+    }
+
+    private void dropLocalGroup(String group) {
+        String prefix = group + ":";
+        local.asMap().keySet().removeIf(key -> key.toString().startsWith(prefix));
+    }
+
+    public Map<String, Object> getStatistics() {
+        CacheStats stats = local.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("localSize", local.estimatedSize());
+        result.put("localHits", localHits.sum());
+        result.put("remoteHits", remoteHits.sum());
+        result.put("misses", misses.sum());
+        result.put("localEvictions", stats.evictionCount());
+        return result;
+    }
+
+    long getLocalHits() {
+        return localHits.sum();
+    }
+
+    long getRemoteHits() {
+        return remoteHits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    long getPuts() {
+        return puts.sum();
+    }
+
+    // Explicit evictions and clears plus L1 size evictions
+    long getEvictions() {
+        return invalidations.sum() + local.stats().evictionCount();
+    }
+
+    long getLocalSize() {
+        return local.estimatedSize();
+    }
+
+    long getLocalEvictions() {
+        return local.stats().evictionCount();
+    }
+
+    private String remoteKey(Object key) {
+        String remoteKey = KEY_PREFIX + name + ":" + currentGeneration() + ":";
+        if (groupGenerations != null) {
+            remoteKey += currentGroupGeneration(group(key)) + ":";
+        }
+        return remoteKey + key;
+    }
+
+    private String generationKey() {
+        return KEY_PREFIX + name + ":generation";
+    }
+
+    private String groupGenerationKey(String group) {
+        return KEY_PREFIX + name + ":group:" + group + ":generation";
+    }
+
+    private static String group(Object key) {
+        String value = key.toString();
+        int separator = value.indexOf(':');
+        return separator < 0 ? value : value.substring(0, separator);
+    }
+
+    private long currentGroupGeneration(String group) {
+        return groupGenerations.get(group, missing -> {
+            String stored = stringRedisTemplate.opsForValue().get(groupGenerationKey(missing));
+            return stored != null ? Long.parseLong(stored) : 0L;
+        });
+    }
+
+    private long currentGeneration() {
+        long current = generation;
+        if (current < 0) {
+            String stored = stringRedisTemplate.opsForValue().get(generationKey());
+            current = stored != null ? Long.parseLong(stored) : 0;
+            generation = current;
+        }
+        return current;
+    }
+}
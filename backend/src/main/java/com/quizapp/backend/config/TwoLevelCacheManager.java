@@ -0,0 +1,111 @@
+package com.quizapp.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Builds a TwoLevelCache per cache name and relays invalidations between nodes over Redis pub/sub
+@Slf4j
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+    private final List<String> cacheNames;
+    private final Set<String> groupedCacheNames;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long localMaxSize;
+    private final Duration localTtl;
+    private final Duration remoteTtl;
+
+    public TwoLevelCacheManager(List<String> cacheNames, Set<String> groupedCacheNames,
+            RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate, long localMaxSize,
+            Duration localTtl, Duration remoteTtl) {
+        this.cacheNames = cacheNames;
+        this.groupedCacheNames = groupedCacheNames;
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.remoteTtl = remoteTtl;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return cacheNames.stream().map(this::createCache).toList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        return createCache(name);
+    }
+
+    private TwoLevelCache createCache(String name) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+        com.github.benmanes.caffeine.cache.Cache<String, Long> groupGenerations = groupedCacheNames.contains(name)
+                ? Caffeine.newBuilder().maximumSize(localMaxSize).expireAfterWrite(localTtl).build()
+                : null;
+        return new TwoLevelCache(name, local, groupGenerations, redisTemplate, stringRedisTemplate, remoteTtl, this);
+    }
+
+    void publishClear(String name, long generation) {
+        stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, "clear|" + name + "|" + generation);
+    }
+
+    void publishEvict(String name, String key) {
+        stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, "evict|" + name + "|" + key);
+    }
+
+    void publishEvictGroup(String name, String group, long generation) {
+        stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, "group|" + name + "|" + generation + ":" + group);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || !(lookupCache(parts[1]) instanceof TwoLevelCache cache)) {
+            return;
+        }
+        try {
+            if ("clear".equals(parts[0])) {
+                cache.onRemoteClear(Long.parseLong(parts[2]));
+            } else if ("evict".equals(parts[0])) {
+                cache.onRemoteEvict(parts[2]);
+            } else if ("group".equals(parts[0])) {
+                String[] payload = parts[2].split(":", 2);
+                cache.onRemoteEvictGroup(payload[1], Long.parseLong(payload[0]));
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            log.warn("Ignoring malformed cache invalidation message: {}", parts[2]);
+        }
+    }
+
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        for (String name : getCacheNames()) {
+            if (lookupCache(name) instanceof TwoLevelCache cache) {
+                statistics.put(name, cache.getStatistics());
+            }
+        }
+        return statistics;
+    }
+}
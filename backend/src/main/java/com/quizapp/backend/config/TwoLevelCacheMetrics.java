@@ -0,0 +1,74 @@
+package com.quizapp.backend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.function.ToLongFunction;
+
+// Standard cache.gets{result=hit|miss}, cache.puts, cache.evictions and cache.size for a TwoLevelCache, bound by
+// actuator like its own cache types; hits count both levels. cache.two.level.gets{result=local_hit|remote_hit|miss}
+// splits them, and a low local_hit share means L1 is too small.
+public class TwoLevelCacheMetrics extends CacheMeterBinder<TwoLevelCache> {
+
+    public TwoLevelCacheMetrics(TwoLevelCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.getLocalSize() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.getLocalHits() + cache.getRemoteHits() : 0;
+    }
+
+    @Override
+    protected Long missCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.getMisses() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.getEvictions() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        TwoLevelCache cache = getCache();
+        return cache != null ? cache.getPuts() : 0;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        TwoLevelCache cache = getCache();
+        if (cache == null) {
+            return;
+        }
+        registerGets(registry, cache, "local_hit", TwoLevelCache::getLocalHits);
+        registerGets(registry, cache, "remote_hit", TwoLevelCache::getRemoteHits);
+        registerGets(registry, cache, "miss", TwoLevelCache::getMisses);
+        Gauge.builder("cache.two.level.local.size", cache, TwoLevelCache::getLocalSize)
+                .tags(getTagsWithCacheName())
+                .register(registry);
+        FunctionCounter.builder("cache.two.level.local.evictions", cache, TwoLevelCache::getLocalEvictions)
+                .tags(getTagsWithCacheName())
+                .register(registry);
+    }
+
+    private void registerGets(MeterRegistry registry, TwoLevelCache cache, String result,
+            ToLongFunction<TwoLevelCache> count) {
+        FunctionCounter.builder("cache.two.level.gets", cache, value -> count.applyAsLong(value))
+                .tags(getTagsWithCacheName())
+                .tag("result", result)
+                .register(registry);
+    }
+}
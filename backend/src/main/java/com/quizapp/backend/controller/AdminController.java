@@ -3,15 +3,20 @@ package com.quizapp.backend.controller;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.quizapp.backend.dto.UserDetailsDTO;
+import com.quizapp.backend.dto.UserDirectoryPageDTO;
+import com.quizapp.backend.dto.request.UserDirectoryRequest;
 import com.quizapp.backend.dto.response.UserResponse;
 import com.quizapp.backend.service.UserService;
 import com.quizapp.backend.service.AdminService;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -45,6 +50,24 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllUsersWithDetails());
     }
 
+    // ?search=&role=&enabled=&sort=USERNAME&direction=ASC&cursor=&size=50
+    @GetMapping("/user-directory")
+    public ResponseEntity<UserDirectoryPageDTO> getUserDirectory(UserDirectoryRequest request,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(adminService.getUserDirectory(request, cursor, size));
+    }
+
+    // Same filters and sort as the directory, every match as NDJSON. Written on the request thread so a long
+    // export isn't cut off by the async request timeout.
+    @GetMapping("/user-directory/export")
+    public void exportUserDirectory(UserDirectoryRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"");
+        adminService.exportUserDirectory(request, response.getOutputStream());
+    }
+
     @GetMapping("/user/{username}")
     public ResponseEntity<UserResponse> getUser(@PathVariable String username) {
         return ResponseEntity.ok(userService.getUser(username));
@@ -65,6 +88,16 @@ public class AdminController {
         return ResponseEntity.ok(updatedUser);
     }
 
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStatistics() {
+        return ResponseEntity.ok(adminService.getCacheStatistics());
+    }
+
+    @GetMapping("/password-hashing-stats")
+    public ResponseEntity<Map<String, Object>> getPasswordHashingStatistics() {
+        return ResponseEntity.ok(adminService.getPasswordHashingStatistics());
+    }
+
     @GetMapping("/profile")
     public ResponseEntity<UserResponse> getCurrentUser() {
         return ResponseEntity.ok(userService.getCurrentUser());
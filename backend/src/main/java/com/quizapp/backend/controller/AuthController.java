@@ -13,6 +13,7 @@ import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.http.ResponseEntity;
 
@@ -36,23 +37,23 @@ public class AuthController {
     private final JwtTokenProvider jwtTokenProvider;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> authenticateUser(
+    public CompletableFuture<ResponseEntity<AuthResponse>> authenticateUser(
             @Valid @RequestBody AuthRequest authRequest, 
             HttpServletResponse response) {
-        AuthResponse authResponse = authService.authenticateUser(authRequest);
-        
-        // Only include essential data in response body
-        AuthResponse sanitizedResponse = AuthResponse.builder()
-            .accessToken(authResponse.getAccessToken())
-            .tokenType(authResponse.getTokenType())
-            .expiresIn(authResponse.getExpiresIn())
-            .user(authResponse.getUser())
-            .build();
-    
-        // Add refresh token as HTTP-only cookie
-        addRefreshTokenCookie(response, authResponse.getRefreshToken());
-    
-        return ResponseEntity.ok(sanitizedResponse);
+        return authService.authenticateUser(authRequest).thenApply(authResponse -> {
+            // Only include essential data in response body
+            AuthResponse sanitizedResponse = AuthResponse.builder()
+                .accessToken(authResponse.getAccessToken())
+                .tokenType(authResponse.getTokenType())
+                .expiresIn(authResponse.getExpiresIn())
+                .user(authResponse.getUser())
+                .build();
+
+            // Add refresh token as HTTP-only cookie
+            addRefreshTokenCookie(response, authResponse.getRefreshToken());
+
+            return ResponseEntity.ok(sanitizedResponse);
+        });
     }
 
     @PostMapping("/register")
@@ -65,7 +66,7 @@ public class AuthController {
     public ResponseEntity<Void> logoutUser(
             HttpServletRequest request, 
             HttpServletResponse response) {
-        authService.logoutUser(request);
+        authService.logoutUser(request, findRefreshToken(request));
         clearRefreshTokenCookie(response);
         return ResponseEntity.noContent().build();
     }
@@ -105,6 +106,14 @@ public class AuthController {
     }
 
     private String extractRefreshToken(HttpServletRequest request) {
+        String refreshToken = findRefreshToken(request);
+        if (refreshToken == null) {
+            throw new AuthenticationCredentialsNotFoundException("Refresh token not found");
+        }
+        return refreshToken;
+    }
+
+    private String findRefreshToken(HttpServletRequest request) {
         Cookie[] cookies = request.getCookies();
         if (cookies != null) {
             for (Cookie cookie : request.getCookies()) {
@@ -113,6 +122,6 @@ public class AuthController {
                 }
             }
         }
-        throw new AuthenticationCredentialsNotFoundException("Refresh token not found");
+        return null;
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.quizapp.backend.controller;
 
 import com.quizapp.backend.dto.LeaderboardEntryDTO;
+import com.quizapp.backend.dto.LeaderboardPositionDTO;
 import com.quizapp.backend.service.LeaderboardService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -16,13 +17,30 @@ public class LeaderboardController {
     private final LeaderboardService leaderboardService;
 
     @GetMapping
-    public ResponseEntity<List<LeaderboardEntryDTO>> getGlobalLeaderboard() {
-        return ResponseEntity.ok(leaderboardService.getGlobalLeaderboard());
+    public ResponseEntity<List<LeaderboardEntryDTO>> getGlobalLeaderboard(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(leaderboardService.getGlobalLeaderboard(page, size));
     }
 
     @GetMapping("/quiz/{quizId}")
     public ResponseEntity<List<LeaderboardEntryDTO>> getQuizLeaderboard(
-            @PathVariable Long quizId) {
-        return ResponseEntity.ok(leaderboardService.getQuizLeaderboard(quizId));
+            @PathVariable Long quizId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(leaderboardService.getQuizLeaderboard(quizId, page, size));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/me")
+    public ResponseEntity<LeaderboardPositionDTO> getMyGlobalPosition(
+            @RequestParam(defaultValue = "5") int window) {
+        return ResponseEntity.ok(leaderboardService.getGlobalPosition(window));
+    }
+
+    @GetMapping("/quiz/{quizId}/me")
+    public ResponseEntity<LeaderboardPositionDTO> getMyQuizPosition(
+            @PathVariable Long quizId,
+            @RequestParam(defaultValue = "5") int window) {
+        return ResponseEntity.ok(leaderboardService.getQuizPosition(quizId, window));
+    }
+}
@@ -7,6 +7,8 @@ import com.quizapp.backend.service.QuizAttemptService;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -20,10 +22,12 @@ import com.quizapp.backend.dto.DetailedQuizAttemptDTO;
 @RequiredArgsConstructor
 public class QuizAttemptController {
 
+    private static final String ACTIVE_ATTEMPT_KEY = "uk_quiz_attempts_active";
+
     private final QuizAttemptService quizAttemptService;
 
     @PostMapping("/start")
-    public synchronized ResponseEntity<?> startOrResumeQuizAttempt(@RequestBody Map<String, Long> requestBody) {
+    public ResponseEntity<?> startOrResumeQuizAttempt(@RequestBody Map<String, Long> requestBody) {
         Long quizId = requestBody.get("quizId");
         if (quizId == null) {
             throw new IllegalArgumentException("Quiz ID is required");
@@ -37,7 +41,20 @@ public class QuizAttemptController {
         }
 
         // If no active attempt exists, start a new one
-        response = quizAttemptService.startNewAttempt(quizId);
+        try {
+            response = quizAttemptService.startNewAttempt(quizId);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request for the same user and quiz won the active-attempt unique key; resume its attempt.
+            // Any other integrity violation is a real error and is not masked.
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (cause == null || !cause.contains(ACTIVE_ATTEMPT_KEY)) {
+                throw e;
+            }
+            response = quizAttemptService.resumeAttempt(quizId);
+            if (response == null) {
+                throw e;
+            }
+        }
         return ResponseEntity.ok(response);
     }
 
@@ -1,7 +1,10 @@
 package com.quizapp.backend.controller;
 
+import com.quizapp.backend.dto.CategoryCountDTO;
+import com.quizapp.backend.dto.QuizCatalogPageDTO;
 import com.quizapp.backend.dto.QuizDTO;
 import com.quizapp.backend.dto.QuizResultDTO;
+import com.quizapp.backend.model.enums.Difficulty;
 import com.quizapp.backend.service.QuizService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -29,6 +32,16 @@ public class QuizController {
         return ResponseEntity.ok(quizService.getAllQuizzes());
     }
 
+    @GetMapping("/catalog")
+    public ResponseEntity<QuizCatalogPageDTO> getQuizCatalog(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Difficulty difficulty,
+            @RequestParam(required = false) Boolean published,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(quizService.getQuizCatalog(category, difficulty, published, cursor, size));
+    }
+
     @GetMapping("/{quizId}")
     public ResponseEntity<QuizDTO> getQuizById(@PathVariable("quizId") Long quizId) {
         return ResponseEntity.ok(quizService.getQuizById(quizId));
@@ -60,4 +73,9 @@ public class QuizController {
     public List<String> getAllCategories() {
         return quizService.getAllCategories();
     }
+
+    @GetMapping("/categories/counts")
+    public List<CategoryCountDTO> getCategoryCounts() {
+        return quizService.getCategoryCounts();
+    }
 }
@@ -0,0 +1,15 @@
+package com.quizapp.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryCountDTO implements Serializable {
+    private String category;
+    private Long quizCount;
+}
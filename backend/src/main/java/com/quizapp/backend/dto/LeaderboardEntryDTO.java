@@ -3,9 +3,11 @@ package com.quizapp.backend.dto;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.Serializable;
+
 @Data
 @Builder
-public class LeaderboardEntryDTO {
+public class LeaderboardEntryDTO implements Serializable {
 
     private Long userId;
     private String username;
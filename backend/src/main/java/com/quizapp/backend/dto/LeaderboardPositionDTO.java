@@ -0,0 +1,17 @@
+package com.quizapp.backend.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class LeaderboardPositionDTO {
+
+    private Long userId;
+    private Integer rank;
+    private Integer score;
+    private Long totalRanked;
+    private List<LeaderboardEntryDTO> entries;
+}
@@ -30,6 +30,9 @@ public class QuestionDTO {
 
     private Difficulty difficulty;
 
+    // From the correct rate of graded answers; UNASSIGNED until there are enough of them
+    private Difficulty empiricalDifficulty;
+
     private String explanation;
 
     private Integer attempts;
@@ -0,0 +1,14 @@
+package com.quizapp.backend.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class QuizCatalogPageDTO {
+    private List<QuizSummaryDTO> items;
+    // Pass back as "cursor" to fetch the next page; null on the last page
+    private Long nextCursor;
+}
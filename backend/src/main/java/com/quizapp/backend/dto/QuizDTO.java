@@ -24,5 +24,7 @@ public class QuizDTO {
     private String category;
     private Long createdById;
     private Difficulty difficulty;
+    // From how takers actually score; UNASSIGNED until there are enough completed attempts
+    private Difficulty empiricalDifficulty;
     private List<QuestionDTO> questions; 
 }
\ No newline at end of file
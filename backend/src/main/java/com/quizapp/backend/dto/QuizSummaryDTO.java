@@ -0,0 +1,22 @@
+package com.quizapp.backend.dto;
+
+import com.quizapp.backend.model.enums.Difficulty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuizSummaryDTO {
+    private Long id;
+    private String title;
+    private String category;
+    private Difficulty difficulty;
+    private Long questionCount;
+    private Integer timeLimitMinutes;
+    private Boolean isPublished;
+}
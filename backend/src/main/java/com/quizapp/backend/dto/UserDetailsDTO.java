@@ -3,6 +3,8 @@ package com.quizapp.backend.dto;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 public class UserDetailsDTO {
@@ -14,5 +16,7 @@ public class UserDetailsDTO {
     private boolean enabled;
     private Integer quizzesTaken;
     private Double averageScore;
+    private Integer bestScore;
+    private LocalDateTime lastActivityAt;
     private String joinDate;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.quizapp.backend.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserDirectoryPageDTO {
+    private List<UserDetailsDTO> items;
+    // Pass back as "cursor" with the same filters and sort to fetch the next page; null on the last page
+    private String nextCursor;
+}
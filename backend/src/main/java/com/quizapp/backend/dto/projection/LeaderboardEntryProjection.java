@@ -0,0 +1,12 @@
+package com.quizapp.backend.dto.projection;
+
+public interface LeaderboardEntryProjection {
+    Long getUserId();
+    String getUsername();
+    String getFirstName();
+    String getLastName();
+    Integer getTotalQuizzesTaken();
+    Integer getScore();
+    Integer getMaxPossibleScore();
+    Integer getRank();
+}
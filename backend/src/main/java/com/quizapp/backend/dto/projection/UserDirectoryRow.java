@@ -0,0 +1,12 @@
+package com.quizapp.backend.dto.projection;
+
+import com.quizapp.backend.dto.UserDetailsDTO;
+
+import lombok.Value;
+
+// One directory entry plus the value it was sorted on, which the next page's cursor starts after
+@Value
+public class UserDirectoryRow {
+    UserDetailsDTO user;
+    Object sortValue;
+}
@@ -0,0 +1,19 @@
+package com.quizapp.backend.dto.request;
+
+import org.springframework.data.domain.Sort;
+
+import com.quizapp.backend.model.enums.Role;
+
+import lombok.Data;
+
+// Filters and ordering of the admin user directory, bound from query parameters
+@Data
+public class UserDirectoryRequest {
+
+    // Prefix of the username or email
+    private String search;
+    private Role role;
+    private Boolean enabled;
+    private UserDirectorySort sort = UserDirectorySort.USERNAME;
+    private Sort.Direction direction = Sort.Direction.ASC;
+}
@@ -0,0 +1,22 @@
+package com.quizapp.backend.dto.request;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// Sort keys of the admin user directory; ties are always broken by user id
+@Getter
+@RequiredArgsConstructor
+public enum UserDirectorySort {
+    USERNAME(String.class),
+    EMAIL(String.class),
+    JOINED(LocalDateTime.class),
+    QUIZZES_TAKEN(Integer.class),
+    AVERAGE_SCORE(BigDecimal.class),
+    LAST_ACTIVITY(LocalDateTime.class);
+
+    // Type of the sort value carried in directory cursors
+    private final Class<?> valueType;
+}
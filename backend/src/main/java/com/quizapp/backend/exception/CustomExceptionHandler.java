@@ -1,7 +1,11 @@
 package com.quizapp.backend.exception;
 
+import com.quizapp.backend.config.ConcurrencyLimitingDataSource;
+import jakarta.persistence.PersistenceException;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
@@ -51,6 +55,26 @@ public class CustomExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<?> handleServiceUnavailableException(ServiceUnavailableException ex, WebRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(
+                "timestamp", LocalDateTime.now(),
+                "message", ex.getMessage(),
+                "details", request.getDescription(false),
+                "errorCode", "SERVICE_UNAVAILABLE"
+        ));
+    }
+
+    // A query that gave up waiting on the connection limiter is shed load, same as a full BCrypt queue
+    @ExceptionHandler({ DataAccessException.class, TransactionException.class, PersistenceException.class })
+    public ResponseEntity<?> handleDataAccessException(Exception ex, WebRequest request) {
+        if (ConcurrencyLimitingDataSource.isPermitTimeout(ex)) {
+            return handleServiceUnavailableException(
+                    new ServiceUnavailableException("Server is busy, please try again shortly"), request);
+        }
+        return handleGenericException(ex, request);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> handleGenericException(Exception ex, WebRequest request) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
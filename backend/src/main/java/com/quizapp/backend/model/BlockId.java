@@ -0,0 +1,21 @@
+package com.quizapp.backend.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Ids handed out in blocks reserved from an AUTO_INCREMENT table, so inserts can be JDBC-batched (IDENTITY
+// disables batching) without the second connection Hibernate's table generator needs for every block
+@IdGeneratorType(BlockIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface BlockId {
+
+    // Table with a single AUTO_INCREMENT id column; each row inserted reserves one block
+    String table();
+
+    int blockSize() default 50;
+}
@@ -0,0 +1,76 @@
+package com.quizapp.backend.model;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Block n covers ids [n * blockSize, (n + 1) * blockSize). A block is reserved by inserting a row into the
+// block table on the caller's own connection: AUTO_INCREMENT values are never handed out twice, aren't
+// rolled back and hold no lock past the statement, so nothing waits on another transaction or a second
+// pooled connection (the table generator's isolated transaction starved a saturated pool). A block from a
+// rolled-back transaction is simply never used.
+// Ids come off the current block without a lock; only a caller that finds it used up reserves the next one,
+// outside any lock, so no inserting thread waits on another's round trip. Callers that run out at the same
+// moment each reserve a block and the first installed wins; the others keep one id and drop the rest as a gap.
+public class BlockIdGenerator implements IdentifierGenerator {
+
+    private final String reserveSql;
+    private final int blockSize;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+
+    public BlockIdGenerator(BlockId config) {
+        this.reserveSql = "INSERT INTO " + config.table() + " () VALUES ()";
+        this.blockSize = config.blockSize();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner) {
+        Block block = current.get();
+        long id = block.next.getAndIncrement();
+        if (id < block.limit) {
+            return id;
+        }
+        long start = reserveBlock(session) * blockSize;
+        current.compareAndSet(block, new Block(start + 1, start + blockSize));
+        return start;
+    }
+
+    private long reserveBlock(SharedSessionContractImplementor session) {
+        JdbcCoordinator jdbc = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbc.getStatementPreparer()
+                .prepareStatement(reserveSql, Statement.RETURN_GENERATED_KEYS);
+        try {
+            jdbc.getResultSetReturn().executeUpdate(statement, reserveSql);
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new HibernateException("No block reserved by: " + reserveSql);
+                }
+                return keys.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "Could not reserve an id block", reserveSql);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbc.afterStatementExecution();
+        }
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long limit;
+
+        Block(long next, long limit) {
+            this.next = new AtomicLong(next);
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.quizapp.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDateTime;
+
+// How far an incremental background job has got through completed attempts, as a (completedAt, id) keyset
+// position; advanced in the same transaction as the work it covers
+@Entity
+@Table(name = "job_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobWatermark {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime lastCompletedAt;
+
+    @Column(nullable = false)
+    private Long lastId;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -36,11 +36,20 @@ public class Question {
 
     @Column(nullable = true, columnDefinition = "TEXT")
     private String correctAnswer;
+    // Counted from graded answers by QuestionStatsCollector and classified by DifficultyRecalculationJob.
+    // Not updatable through the entity, so saving a question can't overwrite the background increments.
+    @Column(updatable = false)
     @Builder.Default
     private Integer attempts = 0;
+    @Column(updatable = false)
     @Builder.Default
     private Integer correctSelections = 0;
 
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    @Builder.Default
+    private Difficulty empiricalDifficulty = Difficulty.UNASSIGNED;
+
     @Enumerated(EnumType.STRING)
     @Builder.Default
     private Difficulty difficulty = Difficulty.UNASSIGNED;
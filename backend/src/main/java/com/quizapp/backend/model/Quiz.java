@@ -50,6 +50,20 @@ public class Quiz {
     @Column(nullable = false)
     private Difficulty difficulty = Difficulty.UNASSIGNED;
 
+    // Measured difficulty and the completed-attempt totals behind it, maintained by DifficultyRecalculationJob.
+    // Not updatable through the entity, so saving a quiz can't overwrite the job's increments.
+    @Column(updatable = false)
+    private long scoredAttempts;
+    @Column(updatable = false)
+    private long scoreSum;
+    @Column(updatable = false)
+    private long maxScoreSum;
+
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false)
+    @Builder.Default
+    private Difficulty empiricalDifficulty = Difficulty.UNASSIGNED;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
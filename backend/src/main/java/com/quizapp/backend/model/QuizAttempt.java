@@ -9,7 +9,8 @@ import com.quizapp.backend.model.enums.AttemptStatus;
 import java.util.ArrayList;
 
 @Entity
-@Table(name = "quiz_attempts")
+@Table(name = "quiz_attempts", uniqueConstraints = @UniqueConstraint(
+        name = "uk_quiz_attempts_active", columnNames = { "user_id", "quiz_id", "active_flag" }))
 @Getter
 @Setter
 @Builder
@@ -42,6 +43,11 @@ public class QuizAttempt {
     @Column(nullable = false)
     private AttemptStatus status = AttemptStatus.IN_PROGRESS;
 
+    // 1 while IN_PROGRESS, NULL otherwise: the unique key allows one active attempt per user and quiz
+    @Column(name = "active_flag", insertable = false, updatable = false,
+            columnDefinition = "tinyint generated always as (case when status = 'IN_PROGRESS' then 1 end) stored")
+    private Byte activeFlag;
+
     @OneToMany(mappedBy = "quizAttempt", cascade = CascadeType.ALL, orphanRemoval = true)
     private final List<UserAnswer> userAnswers = new ArrayList<>();
 
@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 import com.quizapp.backend.model.enums.Role;
 
 @Entity
-@Table(name = "users")
+// created_at is a sort key of the admin user directory
+@Table(name = "users", indexes = @Index(name = "idx_users_created_at", columnList = "created_at"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -15,8 +15,12 @@ import java.util.List;
 @AllArgsConstructor
 public class UserAnswer {
 
+    public static final String ID_BLOCK_TABLE = "user_answer_id_blocks";
+    public static final int ID_BLOCK_SIZE = 50;
+
+    // Ids reserved in blocks so answer rows can be JDBC-batched; IDENTITY disables batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @BlockId(table = ID_BLOCK_TABLE, blockSize = ID_BLOCK_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,46 +1,72 @@
 package com.quizapp.backend.model;
 
 
+import com.quizapp.backend.model.enums.Role;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
+// Immutable snapshot of the user, so it can be cached and shared across requests without holding an entity
 public class UserPrincipal implements UserDetails {
 
-    private final User user;
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final Role role;
+    private final boolean enabled;
+    private final List<GrantedAuthority> authorities;
 
     public UserPrincipal(User user) {
-        this.user = user;
+        this(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), user.getRole(), user.isEnabled());
+    }
+
+    private UserPrincipal(Long id, String username, String email, String password, Role role, boolean enabled) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        this.enabled = enabled;
+        // Convert user role to Spring Security authority
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    // Copy without the password hash, for principals that are only used after token authentication
+    public UserPrincipal withoutPassword() {
+        return new UserPrincipal(id, username, email, null, role, enabled);
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // Convert user role to Spring Security authority
-        return Collections.singletonList(
-            new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
-        );
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     // Additional getter for email
     public String getEmail() {
-        return user.getEmail();
+        return email;
     }
 
     // Additional getter for user ID
     public Long getId() {
-        return user.getId();
+        return id;
+    }
+
+    public Role getRole() {
+        return role;
     }
 
     @Override
@@ -60,6 +86,6 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return enabled;
     }
-}
\ No newline at end of file
+}
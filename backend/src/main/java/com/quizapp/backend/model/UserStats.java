@@ -0,0 +1,50 @@
+package com.quizapp.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Per-user attempt aggregates, kept up to date by QuizAttemptService and repaired by UserStatsReconcileJob.
+// Every attempt counts towards attemptCount (in progress and abandoned ones too), only completed ones towards
+// the score columns, which is how profiles have always reported quizzes taken and average score.
+@Entity
+// The admin user directory's sort keys; InnoDB appends the primary key, so each index is ordered by (value, user_id)
+@Table(name = "user_stats", indexes = {
+        @Index(name = "idx_user_stats_attempt_count", columnList = "attempt_count"),
+        @Index(name = "idx_user_stats_average_score", columnList = "average_score"),
+        @Index(name = "idx_user_stats_last_activity", columnList = "last_activity_at") })
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private int attemptCount;
+    private int completedCount;
+    private long scoreSum;
+    private Integer bestScore;
+    private LocalDateTime lastActivityAt;
+
+    // getAverageScore() kept by the database, so the admin user directory can sort on it by index
+    @Column(name = "average_score", insertable = false, updatable = false, columnDefinition = "decimal(12,2) "
+            + "generated always as (round(coalesce(score_sum / nullif(attempt_count, 0), 0), 2)) stored")
+    private BigDecimal storedAverageScore;
+
+    public static UserStats empty(Long userId) {
+        return UserStats.builder().userId(userId).build();
+    }
+
+    // Rounded to two decimals
+    public double getAverageScore() {
+        if (attemptCount == 0) {
+            return 0.0;
+        }
+        return Math.round((double) scoreSum / attemptCount * 100.0) / 100.0;
+    }
+}
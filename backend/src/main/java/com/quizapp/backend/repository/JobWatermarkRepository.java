@@ -0,0 +1,29 @@
+package com.quizapp.backend.repository;
+
+import com.quizapp.backend.model.JobWatermark;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobWatermarkRepository extends JpaRepository<JobWatermark, String> {
+
+    // Starts a job at the beginning of history; a no-op once the row exists
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO job_watermarks (name, last_completed_at, last_id, updated_at) "
+            + "VALUES (:name, '1970-01-01 00:00:00', 0, NOW())", nativeQuery = true)
+    int createIfAbsent(@Param("name") String name);
+
+    // Row lock held until commit, so only one node works past a watermark at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM JobWatermark w WHERE w.name = :name")
+    Optional<JobWatermark> findForUpdate(@Param("name") String name);
+}
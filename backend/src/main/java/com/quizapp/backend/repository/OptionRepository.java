@@ -2,6 +2,8 @@ package com.quizapp.backend.repository;
 
 import com.quizapp.backend.model.Option;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +12,7 @@ import java.util.List;
 public interface OptionRepository extends JpaRepository<Option, Long> {
     List<Option> findByQuestionId(Long questionId);
     List<Option> findByQuestionIdAndIsCorrect(Long questionId, boolean isCorrect);
+
+    @Query("SELECT o.question.id, o.id FROM Option o WHERE o.question.quiz.id = :quizId AND o.isCorrect = true")
+    List<Object[]> findCorrectOptionIdsByQuizId(@Param("quizId") Long quizId);
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.quizapp.backend.repository;
 
 import com.quizapp.backend.model.Question;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,10 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findByQuizId(Long quizId);
     long countByQuizId(Long quizId);
 
+    @Query("SELECT q.id, q.text FROM Question q WHERE q.quiz.id = :quizId")
+    List<Object[]> findIdAndTextByQuizId(@Param("quizId") Long quizId);
+
+    @Query("SELECT q.quiz.id, COUNT(q) FROM Question q GROUP BY q.quiz.id")
+    List<Object[]> countQuestionsPerQuiz();
+
 }
\ No newline at end of file
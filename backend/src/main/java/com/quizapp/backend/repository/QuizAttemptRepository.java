@@ -1,11 +1,16 @@
 package com.quizapp.backend.repository;
 
+import com.quizapp.backend.dto.projection.LeaderboardEntryProjection;
 import com.quizapp.backend.model.QuizAttempt;
+import com.quizapp.backend.model.enums.AttemptStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -27,19 +32,119 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
             + "FROM QuizAttempt a GROUP BY a.user.id, a.user.username ORDER BY totalScore DESC")
     List<Object[]> findGlobalLeaderboard();
 
-    @Query("SELECT a FROM QuizAttempt a ORDER BY a.score DESC")
-    List<QuizAttempt> findTopScores();
+    // Same boards as RedisLeaderboard: one row per user, scored by their best completed attempt on a quiz, or
+    // globally by the sum of those bests; equal scores are listed by descending user id, as Redis lists them.
+    // Ranks one page in the derived table, then joins users only for that page.
+    String LEADERBOARD_SELECT = "SELECT r.user_id AS userId, u.username AS username, "
+            + "u.first_name AS firstName, u.last_name AS lastName, "
+            + "(SELECT COUNT(*) FROM quiz_attempts c WHERE c.user_id = r.user_id AND c.status = 'COMPLETED') "
+            + "AS totalQuizzesTaken, "
+            + "r.score AS score, r.max_score AS maxPossibleScore, r.user_rank AS `rank` ";
 
-    @Query("SELECT a FROM QuizAttempt a WHERE a.quiz.id = :quizId ORDER BY a.score DESC")
-    List<QuizAttempt> findTopScoresByQuizId(Long quizId);
+    String LEADERBOARD_JOIN = "JOIN users u ON u.id = r.user_id ORDER BY r.user_rank, r.user_id DESC";
+
+    @Query(value = LEADERBOARD_SELECT
+            + "FROM (SELECT b.user_id, CAST(SUM(b.best) AS SIGNED) AS score, "
+            + "CAST(SUM(COALESCE(m.question_count, 0)) AS SIGNED) AS max_score, "
+            + "RANK() OVER (ORDER BY SUM(b.best) DESC) AS user_rank "
+            + "FROM (SELECT a.user_id, a.quiz_id, MAX(a.score) AS best FROM quiz_attempts a "
+            + "WHERE a.status = 'COMPLETED' GROUP BY a.user_id, a.quiz_id) b "
+            + "LEFT JOIN (SELECT q.quiz_id, COUNT(*) AS question_count FROM questions q GROUP BY q.quiz_id) m "
+            + "ON m.quiz_id = b.quiz_id "
+            + "GROUP BY b.user_id ORDER BY score DESC, b.user_id DESC LIMIT :limit OFFSET :offset) r "
+            + LEADERBOARD_JOIN,
+            nativeQuery = true)
+    List<LeaderboardEntryProjection> findGlobalLeaderboardPage(@Param("limit") int limit, @Param("offset") long offset);
+
+    @Query(value = LEADERBOARD_SELECT
+            + "FROM (SELECT a.user_id, MAX(a.score) AS score, "
+            + "(SELECT COUNT(*) FROM questions q WHERE q.quiz_id = :quizId) AS max_score, "
+            + "RANK() OVER (ORDER BY MAX(a.score) DESC) AS user_rank "
+            + "FROM quiz_attempts a WHERE a.quiz_id = :quizId AND a.status = 'COMPLETED' "
+            + "GROUP BY a.user_id ORDER BY score DESC, a.user_id DESC LIMIT :limit OFFSET :offset) r "
+            + LEADERBOARD_JOIN,
+            nativeQuery = true)
+    List<LeaderboardEntryProjection> findQuizLeaderboardPage(@Param("quizId") Long quizId,
+            @Param("limit") int limit, @Param("offset") long offset);
 
     @Query("SELECT a FROM QuizAttempt a WHERE a.user.id = :userId AND a.quiz.id = :quizId AND a.status = 'IN_PROGRESS'")
     List<QuizAttempt> findActiveAttemptsByUserAndQuiz(@Param("userId") Long userId, @Param("quizId") Long quizId);
 
+    // Ends an attempt only if it is still in progress, returning 0 when another request already ended it. The
+    // row lock taken by the UPDATE serializes concurrent submits/abandons of one attempt, and the one that
+    // waited re-reads the committed status, so only one of them can go on to count the attempt.
+    @Modifying
+    @Query("UPDATE QuizAttempt a SET a.status = :status, a.completedAt = :completedAt "
+            + "WHERE a.id = :id AND a.status = 'IN_PROGRESS'")
+    int endIfInProgress(@Param("id") Long id, @Param("status") AttemptStatus status,
+            @Param("completedAt") LocalDateTime completedAt);
+
     @Query("SELECT a FROM QuizAttempt a WHERE a.user.id = :userId AND a.quiz.id = :quizId")
     List<QuizAttempt> findByUserIdAndQuizId(Long userId, Long quizId);
 
+    @Query("SELECT DISTINCT a.user.id FROM QuizAttempt a WHERE a.quiz.id = :quizId")
+    List<Long> findUserIdsByQuizId(@Param("quizId") Long quizId);
+
+    // id, quizId, score, maxPossibleScore, completedAt of completed attempts after a (completedAt, id) position
+    @Query("SELECT a.id, a.quiz.id, a.score, a.maxPossibleScore, a.completedAt FROM QuizAttempt a "
+            + "WHERE a.status = 'COMPLETED' AND a.completedAt <= :upTo "
+            + "AND (a.completedAt > :afterTime OR (a.completedAt = :afterTime AND a.id > :afterId)) "
+            + "ORDER BY a.completedAt, a.id")
+    List<Object[]> findCompletedAfter(@Param("afterTime") LocalDateTime afterTime, @Param("afterId") Long afterId,
+            @Param("upTo") LocalDateTime upTo, Pageable pageable);
+
     @Query("SELECT COUNT(a) FROM QuizAttempt a WHERE a.user.id = :userId")
     int countByUserId(@Param("userId") Long userId);
 
+    @Query("SELECT COUNT(a) FROM QuizAttempt a WHERE a.user.id = :userId AND a.status = 'COMPLETED'")
+    long countCompletedByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT MAX(a.score) FROM QuizAttempt a "
+            + "WHERE a.user.id = :userId AND a.quiz.id = :quizId AND a.status = 'COMPLETED'")
+    Integer findBestCompletedScore(@Param("userId") Long userId, @Param("quizId") Long quizId);
+
+    // The caller's global board score: the sum of their best completed score per quiz, null when unranked
+    @Query(value = "SELECT CAST(SUM(b.best) AS SIGNED) FROM (SELECT MAX(a.score) AS best FROM quiz_attempts a "
+            + "WHERE a.user_id = :userId AND a.status = 'COMPLETED' GROUP BY a.quiz_id) b", nativeQuery = true)
+    Long findGlobalScoreByUserId(@Param("userId") Long userId);
+
+    // Users listed ahead of the caller on the global board, in findGlobalLeaderboardPage order
+    @Query(value = "SELECT COUNT(*) FROM (SELECT b.user_id FROM (SELECT a.user_id, MAX(a.score) AS best "
+            + "FROM quiz_attempts a WHERE a.status = 'COMPLETED' GROUP BY a.user_id, a.quiz_id) b "
+            + "GROUP BY b.user_id "
+            + "HAVING SUM(b.best) > :score OR (SUM(b.best) = :score AND b.user_id > :userId)) t", nativeQuery = true)
+    long countUsersAheadGlobally(@Param("score") long score, @Param("userId") Long userId);
+
+    // Users listed ahead of the caller on a quiz board, in findQuizLeaderboardPage order
+    @Query(value = "SELECT COUNT(*) FROM (SELECT a.user_id FROM quiz_attempts a "
+            + "WHERE a.quiz_id = :quizId AND a.status = 'COMPLETED' GROUP BY a.user_id "
+            + "HAVING MAX(a.score) > :score OR (MAX(a.score) = :score AND a.user_id > :userId)) t",
+            nativeQuery = true)
+    long countUsersAheadOnQuiz(@Param("quizId") Long quizId, @Param("score") int score, @Param("userId") Long userId);
+
+    boolean existsByStatus(AttemptStatus status);
+
+    boolean existsByQuizIdAndStatus(Long quizId, AttemptStatus status);
+
+    @Query("SELECT COUNT(DISTINCT a.user.id) FROM QuizAttempt a WHERE a.status = 'COMPLETED'")
+    long countRankedUsers();
+
+    @Query("SELECT COUNT(DISTINCT a.user.id) FROM QuizAttempt a WHERE a.quiz.id = :quizId AND a.status = 'COMPLETED'")
+    long countRankedUsersByQuizId(@Param("quizId") Long quizId);
+
+    // userId, quizId, best score, completed count, username, firstName, lastName
+    @Query("SELECT u.id, a.quiz.id, MAX(a.score), COUNT(a), u.username, u.firstName, u.lastName "
+            + "FROM QuizAttempt a JOIN a.user u WHERE a.status = 'COMPLETED' "
+            + "GROUP BY u.id, a.quiz.id, u.username, u.firstName, u.lastName")
+    List<Object[]> findCompletedBestScores();
+
+    // Same rows as findCompletedBestScores, for one user
+    @Query("SELECT u.id, a.quiz.id, MAX(a.score), COUNT(a), u.username, u.firstName, u.lastName "
+            + "FROM QuizAttempt a JOIN a.user u WHERE a.status = 'COMPLETED' AND u.id = :userId "
+            + "GROUP BY u.id, a.quiz.id, u.username, u.firstName, u.lastName")
+    List<Object[]> findCompletedBestScoresByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT DISTINCT a.user.id FROM QuizAttempt a WHERE a.status = 'COMPLETED' AND a.completedAt >= :since")
+    List<Long> findUserIdsCompletedSince(@Param("since") LocalDateTime since);
+
 }
@@ -1,8 +1,13 @@
 package com.quizapp.backend.repository;
 
+import com.quizapp.backend.dto.CategoryCountDTO;
+import com.quizapp.backend.dto.QuizSummaryDTO;
 import com.quizapp.backend.model.Quiz;
+import com.quizapp.backend.model.enums.Difficulty;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +19,26 @@ public interface QuizRepository extends JpaRepository<Quiz, Long> {
     
     @Query("SELECT q FROM Quiz q WHERE q.isPublished = true OR q.createdBy.id = :userId")
     List<Quiz> findAvailableQuizzes(Long userId);
+
+    @Query("SELECT DISTINCT q.category FROM Quiz q ORDER BY q.category")
+    List<String> findDistinctCategories();
+
+    @Query("SELECT new com.quizapp.backend.dto.CategoryCountDTO(q.category, COUNT(q)) "
+            + "FROM Quiz q GROUP BY q.category ORDER BY q.category")
+    List<CategoryCountDTO> countQuizzesByCategory();
+
+    // Keyset page of catalog rows, newest first; question counts are computed for the page rows only
+    @Query("SELECT new com.quizapp.backend.dto.QuizSummaryDTO(q.id, q.title, q.category, q.difficulty, "
+            + "(SELECT COUNT(qq) FROM Question qq WHERE qq.quiz = q), q.timeLimitMinutes, q.isPublished) "
+            + "FROM Quiz q "
+            + "WHERE (:category IS NULL OR q.category = :category) "
+            + "AND (:difficulty IS NULL OR q.difficulty = :difficulty) "
+            + "AND (:published IS NULL OR q.isPublished = :published) "
+            + "AND (:cursor IS NULL OR q.id < :cursor) "
+            + "ORDER BY q.id DESC")
+    List<QuizSummaryDTO> findCatalogPage(@Param("category") String category,
+            @Param("difficulty") Difficulty difficulty,
+            @Param("published") Boolean published,
+            @Param("cursor") Long cursor,
+            Pageable pageable);
 }
\ No newline at end of file
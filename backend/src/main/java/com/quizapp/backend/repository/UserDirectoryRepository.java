@@ -0,0 +1,14 @@
+package com.quizapp.backend.repository;
+
+import com.quizapp.backend.dto.projection.UserDirectoryRow;
+import com.quizapp.backend.dto.request.UserDirectoryRequest;
+
+import java.util.List;
+
+// Admin user directory over users and their user_stats, mixed into UserRepository
+public interface UserDirectoryRepository {
+
+    // Up to limit rows after (afterValue, afterId) in the request's order; afterId is null for the first page,
+    // afterValue is null after a row without a sort value
+    List<UserDirectoryRow> findDirectoryPage(UserDirectoryRequest request, Object afterValue, Long afterId, int limit);
+}
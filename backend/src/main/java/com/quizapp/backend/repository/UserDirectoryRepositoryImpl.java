@@ -0,0 +1,163 @@
+package com.quizapp.backend.repository;
+
+import com.quizapp.backend.dto.UserDetailsDTO;
+import com.quizapp.backend.dto.projection.UserDirectoryRow;
+import com.quizapp.backend.dto.request.UserDirectoryRequest;
+import com.quizapp.backend.dto.request.UserDirectorySort;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Native SQL so the ORDER BY and the keyset predicate name exactly the indexed columns below. Only those
+// whitelisted columns are concatenated in. Stats sorts read user_stats first (every user has a row), so the
+// page is read in index order instead of sorting the whole join. NULL sort values (no activity yet, no join
+// date) sort lowest, as MySQL orders them: first ascending, last descending.
+public class UserDirectoryRepositoryImpl implements UserDirectoryRepository {
+
+    private static final String SELECT = "SELECT u.id AS id, u.username AS username, u.email AS email, "
+            + "u.first_name AS first_name, u.last_name AS last_name, u.role AS role, u.enabled AS enabled, "
+            + "u.created_at AS created_at, COALESCE(s.attempt_count, 0) AS quizzes_taken, "
+            + "COALESCE(s.average_score, 0) AS average_score, s.best_score AS best_score, "
+            + "s.last_activity_at AS last_activity_at, ";
+
+    private static final String USERS_FIRST = " FROM users u LEFT JOIN user_stats s ON s.user_id = u.id";
+    private static final String STATS_FIRST = " FROM user_stats s JOIN users u ON u.id = s.user_id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserDirectoryRow> findDirectoryPage(UserDirectoryRequest request, Object afterValue, Long afterId,
+            int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder where = filters(request, parameters);
+        if (afterId != null) {
+            where.append(" AND ").append(keyset(request, afterValue == null));
+            if (afterValue != null) {
+                parameters.put("afterValue", afterValue);
+            }
+            parameters.put("afterId", afterId);
+        }
+
+        NativeQuery<Object[]> query = query(request, where, parameters);
+        query.setMaxResults(limit);
+        return query.getResultList().stream()
+                .map(this::mapRow)
+                .collect(Collectors.toList());
+    }
+
+    // Rows after (afterValue, afterId) in the request's order, with NULL below every value
+    private String keyset(UserDirectoryRequest request, boolean afterNull) {
+        String column = sortColumn(request.getSort());
+        String id = idColumn(request.getSort());
+        if (request.getDirection() == Sort.Direction.ASC) {
+            return afterNull
+                    ? "(" + column + " IS NOT NULL OR " + id + " > :afterId)"
+                    : "(" + column + " > :afterValue OR (" + column + " = :afterValue AND " + id + " > :afterId))";
+        }
+        return afterNull
+                ? "(" + column + " IS NULL AND " + id + " < :afterId)"
+                : "(" + column + " < :afterValue OR (" + column + " = :afterValue AND " + id + " < :afterId) OR "
+                        + column + " IS NULL)";
+    }
+
+    private StringBuilder filters(UserDirectoryRequest request, Map<String, Object> parameters) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (request.getSearch() != null && !request.getSearch().isBlank()) {
+            // Prefix match, so the username and email indexes still apply
+            where.append(" AND (u.username LIKE :search OR u.email LIKE :search)");
+            parameters.put("search", escapeLike(request.getSearch().trim()) + "%");
+        }
+        if (request.getRole() != null) {
+            where.append(" AND u.role = :role");
+            parameters.put("role", request.getRole().name());
+        }
+        if (request.getEnabled() != null) {
+            where.append(" AND u.enabled = :enabled");
+            parameters.put("enabled", request.getEnabled());
+        }
+        return where;
+    }
+
+    @SuppressWarnings("unchecked")
+    private NativeQuery<Object[]> query(UserDirectoryRequest request, StringBuilder where,
+            Map<String, Object> parameters) {
+        UserDirectorySort sort = request.getSort();
+        String direction = request.getDirection() == Sort.Direction.ASC ? "ASC" : "DESC";
+        String sql = SELECT + sortColumn(sort) + " AS sort_value"
+                + (isStatsSort(sort) ? STATS_FIRST : USERS_FIRST)
+                + where
+                + " ORDER BY " + sortColumn(sort) + " " + direction + ", " + idColumn(sort) + " " + direction;
+
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addScalar("id", Long.class)
+                .addScalar("username", String.class)
+                .addScalar("email", String.class)
+                .addScalar("first_name", String.class)
+                .addScalar("last_name", String.class)
+                .addScalar("role", String.class)
+                .addScalar("enabled", Boolean.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("quizzes_taken", Integer.class)
+                .addScalar("average_score", BigDecimal.class)
+                .addScalar("best_score", Integer.class)
+                .addScalar("last_activity_at", LocalDateTime.class)
+                .addScalar("sort_value", request.getSort().getValueType());
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+    private String sortColumn(UserDirectorySort sort) {
+        return switch (sort) {
+            case USERNAME -> "u.username";
+            case EMAIL -> "u.email";
+            case JOINED -> "u.created_at";
+            case QUIZZES_TAKEN -> "s.attempt_count";
+            case AVERAGE_SCORE -> "s.average_score";
+            case LAST_ACTIVITY -> "s.last_activity_at";
+        };
+    }
+
+    // The tie-breaker from the table the sort column is on, so it matches the order of that column's index
+    private String idColumn(UserDirectorySort sort) {
+        return isStatsSort(sort) ? "s.user_id" : "u.id";
+    }
+
+    private boolean isStatsSort(UserDirectorySort sort) {
+        return sort == UserDirectorySort.QUIZZES_TAKEN || sort == UserDirectorySort.AVERAGE_SCORE
+                || sort == UserDirectorySort.LAST_ACTIVITY;
+    }
+
+    private UserDirectoryRow mapRow(Object[] row) {
+        String role = (String) row[5];
+        LocalDateTime createdAt = (LocalDateTime) row[7];
+        UserDetailsDTO user = UserDetailsDTO.builder()
+                .id((Long) row[0])
+                .name(row[3] + " " + row[4])
+                .username((String) row[1])
+                .email((String) row[2])
+                .role(role != null ? role.toLowerCase() : null)
+                .enabled(Boolean.TRUE.equals(row[6]))
+                .quizzesTaken((Integer) row[8])
+                .averageScore(((BigDecimal) row[9]).doubleValue())
+                .bestScore((Integer) row[10])
+                .lastActivityAt((LocalDateTime) row[11])
+                .joinDate(createdAt != null ? createdAt.toLocalDate().toString() : "N/A")
+                .build();
+        return new UserDirectoryRow(user, row[12]);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
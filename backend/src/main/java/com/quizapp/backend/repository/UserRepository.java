@@ -4,18 +4,38 @@ package com.quizapp.backend.repository;
 import com.quizapp.backend.model.User;
 import com.quizapp.backend.model.enums.Role;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserDirectoryRepository {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     List<User> findAllByRole(Role role);
+
+    // User, UserStats (null until the user's first attempt)
+    @Query("SELECT u, s FROM User u LEFT JOIN UserStats s ON s.userId = u.id")
+    List<Object[]> findAllWithStats();
+
+    @Query("SELECT u, s FROM User u LEFT JOIN UserStats s ON s.userId = u.id WHERE u.role = :role")
+    List<Object[]> findAllWithStatsByRole(@Param("role") Role role);
+
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
     
 }
@@ -0,0 +1,97 @@
+package com.quizapp.backend.repository;
+
+import com.quizapp.backend.model.UserStats;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Updates are single upserts so concurrent attempts by the same user never lose an increment.
+// A missing row (user predating the table, or a reconcile that hasn't run yet) is created on the spot.
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    // Zero row for a new user, so the directory's stats sorts (which read user_stats first) list them too
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO user_stats (user_id) VALUES (:userId)", nativeQuery = true)
+    int createEmpty(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, attempt_count, completed_count, score_sum, best_score, last_activity_at) "
+            + "VALUES (:userId, 1, 0, 0, NULL, :at) "
+            + "ON DUPLICATE KEY UPDATE attempt_count = attempt_count + 1, last_activity_at = :at",
+            nativeQuery = true)
+    int recordAttemptStarted(@Param("userId") Long userId, @Param("at") LocalDateTime at);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, attempt_count, completed_count, score_sum, best_score, last_activity_at) "
+            + "VALUES (:userId, 1, 1, :score, :score, :at) "
+            + "ON DUPLICATE KEY UPDATE completed_count = completed_count + 1, score_sum = score_sum + :score, "
+            + "best_score = GREATEST(COALESCE(best_score, :score), :score), last_activity_at = :at",
+            nativeQuery = true)
+    int recordAttemptCompleted(@Param("userId") Long userId, @Param("score") int score, @Param("at") LocalDateTime at);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, attempt_count, completed_count, score_sum, best_score, last_activity_at) "
+            + "VALUES (:userId, 1, 0, 0, NULL, :at) "
+            + "ON DUPLICATE KEY UPDATE last_activity_at = :at",
+            nativeQuery = true)
+    int recordActivity(@Param("userId") Long userId, @Param("at") LocalDateTime at);
+
+    // Best score is only re-read (by index on quiz_attempts.user_id) when a completed attempt went away
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE user_stats SET "
+            + "attempt_count = GREATEST(attempt_count - :attempts, 0), "
+            + "completed_count = GREATEST(completed_count - :completed, 0), "
+            + "score_sum = GREATEST(score_sum - :scoreSum, 0), "
+            + "best_score = CASE WHEN :completed > 0 THEN (SELECT MAX(a.score) FROM quiz_attempts a "
+            + "WHERE a.user_id = :userId AND a.status = 'COMPLETED') ELSE best_score END "
+            + "WHERE user_id = :userId",
+            nativeQuery = true)
+    int recordAttemptsDeleted(@Param("userId") Long userId, @Param("attempts") int attempts,
+            @Param("completed") int completed, @Param("scoreSum") long scoreSum);
+
+    // Recomputes the rows of the given users from quiz_attempts; users without attempts get a zero row
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO user_stats (user_id, attempt_count, completed_count, score_sum, best_score, last_activity_at) "
+            + "SELECT u.id, COUNT(a.id), "
+            + "COALESCE(SUM(CASE WHEN a.status = 'COMPLETED' THEN 1 ELSE 0 END), 0), "
+            + "COALESCE(SUM(CASE WHEN a.status = 'COMPLETED' THEN a.score ELSE 0 END), 0), "
+            + "MAX(CASE WHEN a.status = 'COMPLETED' THEN a.score END), "
+            + "MAX(COALESCE(a.completed_at, a.started_at)) "
+            + "FROM users u LEFT JOIN quiz_attempts a ON a.user_id = u.id "
+            + "WHERE u.id IN (:userIds) GROUP BY u.id "
+            + "ON DUPLICATE KEY UPDATE attempt_count = VALUES(attempt_count), completed_count = VALUES(completed_count), "
+            + "score_sum = VALUES(score_sum), best_score = VALUES(best_score), last_activity_at = VALUES(last_activity_at)",
+            nativeQuery = true)
+    int recompute(@Param("userIds") Collection<Long> userIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UserStats s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT u.id FROM User u WHERE NOT EXISTS (SELECT 1 FROM UserStats s WHERE s.userId = u.id) ORDER BY u.id")
+    List<Long> findUserIdsWithoutStats(Pageable pageable);
+
+    // Rows left behind by users removed outside the application
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE s FROM user_stats s LEFT JOIN users u ON u.id = s.user_id WHERE u.id IS NULL",
+            nativeQuery = true)
+    int deleteOrphaned();
+}
@@ -0,0 +1,25 @@
+package com.quizapp.backend.security;
+
+import com.quizapp.backend.model.UserPrincipal;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+// Reads the authenticated principal the JWT filter put in the security context, without touching the database
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    public static UserPrincipal principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new AuthenticationCredentialsNotFoundException("User is not authenticated");
+        }
+        return principal;
+    }
+
+    public static Long id() {
+        return principal().getId();
+    }
+}
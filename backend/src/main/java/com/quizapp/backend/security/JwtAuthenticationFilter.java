@@ -3,6 +3,9 @@ package com.quizapp.backend.security;
 
 
 import com.quizapp.backend.service.UserDetailService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,48 +16,66 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.data.redis.core.StringRedisTemplate;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailService userDetailService;
-    private final StringRedisTemplate redisTemplate;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, 
-                                 StringRedisTemplate redisTemplate, UserDetailService userDetailService) {
+    // Time spent authenticating each request, by outcome
+    private final Timer authenticatedTimer;
+    private final Timer anonymousTimer;
+    private final Timer rejectedTimer;
+    private final Timer errorTimer;
+
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailService userDetailService,
+                                   MeterRegistry meterRegistry) {
         this.tokenProvider = tokenProvider;
         this.userDetailService = userDetailService;
-        this.redisTemplate = redisTemplate;
+        this.authenticatedTimer = filterTimer(meterRegistry, "authenticated");
+        this.anonymousTimer = filterTimer(meterRegistry, "anonymous");
+        this.rejectedTimer = filterTimer(meterRegistry, "rejected");
+        this.errorTimer = filterTimer(meterRegistry, "error");
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        Timer outcome = anonymousTimer;
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (jwt != null && tokenProvider.validateToken(jwt)) {
-                // Check if the token is blacklisted
-                if (Boolean.TRUE.equals(redisTemplate.hasKey("blacklist:" + jwt))) {
-                    throw new RuntimeException("Token is blacklisted");
-                }
-
-                String username = tokenProvider.getUsernameFromJWT(jwt);
-                UserDetails userDetails = userDetailService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            // One signature check (cached per token); the blacklist only hits Redis on a Bloom filter match
+            Claims claims = jwt != null ? tokenProvider.getValidatedClaims(jwt) : null;
+            if (jwt != null && claims == null) {
+                outcome = rejectedTimer;
+            }
+            if (claims != null) {
+                String username = claims.getSubject();
+                UserDetails userDetails = userDetailService.loadCachedPrincipal(username);
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    outcome = authenticatedTimer;
+                } else {
+                    // A still-valid token doesn't outlive the account being disabled
+                    outcome = rejectedTimer;
+                }
             }
         } catch (Exception ex) {
+            outcome = errorTimer;
             logger.error("Could not set user authentication in security context", ex);
         }
+        outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
@@ -66,4 +87,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    private static Timer filterTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("security.jwt.filter")
+                .description("JWT validation and principal lookup per request")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
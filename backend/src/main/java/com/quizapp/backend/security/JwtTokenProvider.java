@@ -1,9 +1,13 @@
 package com.quizapp.backend.security;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -12,7 +16,12 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import javax.crypto.SecretKey;
@@ -29,11 +38,50 @@ public class JwtTokenProvider {
     @Value("${app.jwt-refresh-expiration-milliseconds}")
     private long jwtRefreshExpirationInMs;
 
+    @Value("${app.jwt-cache.max-size:10000}")
+    private long verifiedTokenCacheSize;
+
     private final StringRedisTemplate redisTemplate;
+    private final RevokedTokenRegistry revokedTokens;
+    // Tokens issued before jti was added are still blacklisted by their full value
     private static final String BLACKLIST_PREFIX = "blacklist:";
 
-    public JwtTokenProvider(StringRedisTemplate redisTemplate) {
+    // Built once at startup; the parser is immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Verified access token claims keyed by SHA-256 of the token, each entry expiring with its token
+    private Cache<String, Claims> verifiedTokens;
+
+    public JwtTokenProvider(StringRedisTemplate redisTemplate, RevokedTokenRegistry revokedTokens) {
         this.redisTemplate = redisTemplate;
+        this.revokedTokens = revokedTokens;
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = buildSigningKey();
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     // Generate token
@@ -44,10 +92,11 @@ public class JwtTokenProvider {
 
         return Jwts
                     .builder()
+                    .id(UUID.randomUUID().toString())
                     .subject(username)
                     .issuedAt(currentDate)
                     .expiration(expireDate)
-                    .signWith(getSigningKey())
+                    .signWith(signingKey)
                     .compact();
         
     }
@@ -59,10 +108,11 @@ public class JwtTokenProvider {
 
         return Jwts 
                     .builder()
+                    .id(UUID.randomUUID().toString())
                     .subject(username)
                     .issuedAt(currentDate)
                     .expiration(expireDate)
-                    .signWith(getSigningKey())
+                    .signWith(signingKey)
                     .compact();
     }
     public String generateRefreshToken(String username) {
@@ -71,10 +121,11 @@ public class JwtTokenProvider {
 
         return Jwts 
                 .builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(currentDate)
                 .expiration(expireDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     public String generateToken(String username) {
@@ -83,31 +134,24 @@ public class JwtTokenProvider {
 
         return Jwts
                     .builder()
+                    .id(UUID.randomUUID().toString())
                     .subject(username)
                     .issuedAt(currentDate)
                     .expiration(expireDate)
-                    .signWith(getSigningKey())
+                    .signWith(signingKey)
                     .compact();
     }
     public boolean validateRefreshToken(String token) {
         
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build().parseSignedClaims(token);
-           return true;
+            parser.parseSignedClaims(token);
+            return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
     public String getUsernameFromRefreshToken(String token) {
-        Claims claims = 
-                        Jwts.parser()
-                        .verifyWith(getSigningKey())
-                        .build()
-                        .parseSignedClaims(token)
-                        .getPayload();
-        return claims.getSubject();
+        return parser.parseSignedClaims(token).getPayload().getSubject();
     }
        
 
@@ -118,21 +162,39 @@ public class JwtTokenProvider {
 
     // Validate token
     public boolean validateToken(String token) {
+        return getValidatedClaims(token) != null;
+    }
+
+    // Single verification pass for the auth filter: claims of a valid, non-blacklisted token, otherwise null
+    public Claims getValidatedClaims(String token) {
+        Claims claims;
         try {
-            parseToken(token);
-            return !isTokenBlacklisted(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            claims = parseToken(token);
+        } catch (RuntimeException e) {
+            return null;
         }
+        return isRevoked(token, claims) ? null : claims;
     }
 
     private Claims parseToken(String token) {
+        if (!StringUtils.hasText(token)) {
+            throw new RuntimeException("JWT claims string is empty");
+        }
+        String key = hashToken(token);
+        Claims cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            // Caffeine expiry is amortised, so re-check exp before trusting a cached entry
+            if (cached.getExpiration().getTime() > System.currentTimeMillis()) {
+                return cached;
+            }
+            verifiedTokens.invalidate(key);
+        }
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(key, claims);
+            }
+            return claims;
         } catch (ExpiredJwtException e) {
             throw new RuntimeException("Token has expired", e);
         } catch (UnsupportedJwtException e) {
@@ -150,18 +212,29 @@ public class JwtTokenProvider {
     public void blacklistToken(String token) {
         Claims claims = parseToken(token);
         long ttl = claims.getExpiration().getTime() - System.currentTimeMillis();
-        if (ttl > 0) {
-            redisTemplate.opsForValue().set(
-                BLACKLIST_PREFIX + token, 
-                "true", 
-                ttl, 
-                TimeUnit.MILLISECONDS
-            );
+        if (ttl <= 0) {
+            return;
+        }
+        if (claims.getId() != null) {
+            revokedTokens.revoke(claims.getId(), ttl);
+        } else {
+            redisTemplate.opsForValue().set(BLACKLIST_PREFIX + token, "true", ttl, TimeUnit.MILLISECONDS);
         }
     }
 
     // Check if token is blacklisted
     public boolean isTokenBlacklisted(String token) {
+        try {
+            return isRevoked(token, parseToken(token));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean isRevoked(String token, Claims claims) {
+        if (claims.getId() != null) {
+            return revokedTokens.isRevoked(claims.getId());
+        }
         try {
             return Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + token));
         } catch (Exception e) {
@@ -170,7 +243,16 @@ public class JwtTokenProvider {
         }
     }
 
-    private SecretKey getSigningKey() {
+    private static String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private SecretKey buildSigningKey() {
         if (jwtSecret == null || jwtSecret.isEmpty()) {
             throw new IllegalArgumentException("JWT secret is not set or empty");
             
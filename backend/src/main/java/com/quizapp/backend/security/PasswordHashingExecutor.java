@@ -0,0 +1,144 @@
+package com.quizapp.backend.security;
+
+import com.quizapp.backend.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Runs BCrypt on a small dedicated pool, so a login storm queues here (and is shed with a 503 once the
+// queue is full) instead of pinning every request thread on password hashing. Results are handed to the
+// application task executor, so callers' continuations (token issuance, DB writes) never run on a hashing thread.
+@Component
+@Slf4j
+public class PasswordHashingExecutor implements MeterBinder {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Executor continuationExecutor;
+    private final TaskDecorator taskDecorator;
+    private final int queueCapacity;
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder verifyNanos = new LongAdder();
+    private final LongAccumulator maxVerifyNanos = new LongAccumulator(Math::max, 0);
+
+    public PasswordHashingExecutor(PasswordEncoder passwordEncoder,
+                                   @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                                   Executor continuationExecutor,
+                                   ObjectProvider<TaskDecorator> taskDecorator,
+                                   @Value("${app.security.bcrypt.threads:0}") int threads,
+                                   @Value("${app.security.bcrypt.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.continuationExecutor = continuationExecutor;
+        // Same decorator Boot puts on the application task executor, so per-request context survives the hop here
+        this.taskDecorator = taskDecorator.getIfUnique(() -> runnable -> runnable);
+        this.queueCapacity = queueCapacity;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> {
+            long start = System.nanoTime();
+            try {
+                return passwordEncoder.matches(rawPassword, encodedPassword);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                verifications.increment();
+                verifyNanos.add(elapsed);
+                maxVerifyNanos.accumulate(elapsed);
+            }
+        });
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    // True when the stored hash was made with a lower cost than the one configured now
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    public Map<String, Object> getStatistics() {
+        long count = verifications.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("verifications", count);
+        stats.put("rejections", rejections.sum());
+        stats.put("avgVerifyMillis", count == 0 ? 0.0 : verifyNanos.sum() / (double) count / 1_000_000.0);
+        stats.put("maxVerifyMillis", maxVerifyNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bcrypt.pool.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently busy")
+                .register(registry);
+        Gauge.builder("bcrypt.pool.queued", executor, pool -> pool.getQueue().size())
+                .description("Hashing tasks waiting for a thread")
+                .register(registry);
+        FunctionTimer.builder("bcrypt.verify", this, hashing -> hashing.verifications.sum(),
+                        hashing -> hashing.verifyNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time spent checking passwords, excluding queueing")
+                .register(registry);
+        FunctionCounter.builder("bcrypt.rejections", rejections, LongAdder::sum)
+                .description("Hashing requests shed because the queue was full")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            // whenCompleteAsync completes the returned future on the continuation executor, failures included,
+            // so dependent stages attached by the caller run there rather than on the hashing thread
+            return CompletableFuture.supplyAsync(task, runnable -> executor.execute(taskDecorator.decorate(runnable)))
+                    .whenCompleteAsync((result, error) -> { }, continuationExecutor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            log.warn("Password hashing queue is full ({} waiting), rejecting request", queueCapacity);
+            throw new ServiceUnavailableException("Server is busy, please try again shortly");
+        }
+    }
+}
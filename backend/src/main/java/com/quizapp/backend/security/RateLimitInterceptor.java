@@ -0,0 +1,64 @@
+package com.quizapp.backend.security;
+
+import com.quizapp.backend.config.RateLimitProperties;
+import com.quizapp.backend.exception.TooManyRequestsException;
+import com.quizapp.backend.model.UserPrincipal;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Map;
+
+// Applies the configured per-route buckets before the controller runs, so floods never reach BCrypt or the DB
+@Component
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async logins are re-dispatched through the interceptor chain; count them once
+        if (!properties.isEnabled() || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        for (Map.Entry<String, RateLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            RateLimitProperties.Route route = entry.getValue();
+            if (route.getPath() == null
+                    || !route.getMethod().equalsIgnoreCase(request.getMethod())
+                    || !pathMatcher.match(route.getPath(), uri)) {
+                continue;
+            }
+            String key = entry.getKey() + ":" + clientKey(route, request);
+            long waitMs = rateLimiter.tryAcquire(key, route.getCapacity(), route.getRefillPeriod());
+            if (waitMs > 0) {
+                long retryAfterSeconds = Math.max(1, (waitMs + 999) / 1000);
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                throw new TooManyRequestsException(
+                        "Too many requests. Please retry in " + retryAfterSeconds + " seconds.");
+            }
+        }
+        return true;
+    }
+
+    private String clientKey(RateLimitProperties.Route route, HttpServletRequest request) {
+        if (route.getKey() == RateLimitProperties.KeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+                return "user:" + principal.getId();
+            }
+        }
+        // The client as resolved from trusted forwarded headers (server.forward-headers-strategy), not the proxy
+        return "ip:" + request.getRemoteAddr();
+    }
+}
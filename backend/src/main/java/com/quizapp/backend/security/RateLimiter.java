@@ -0,0 +1,80 @@
+package com.quizapp.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Token buckets shared across nodes through Redis, with a per-node bucket when Redis is unreachable
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimiter {
+
+    private static final String KEY_PREFIX = "rateLimit:";
+
+    // KEYS[1] bucket hash; ARGV[1] capacity, ARGV[2] tokens refilled per ms.
+    // Uses the Redis clock so nodes with skewed clocks agree. Returns 0 if a token was taken,
+    // otherwise the milliseconds until one will be available.
+    private static final DefaultRedisScript<Long> TAKE_TOKEN = new DefaultRedisScript<>(
+            "local capacity = tonumber(ARGV[1]) "
+            + "local rate = tonumber(ARGV[2]) "
+            + "local time = redis.call('TIME') "
+            + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+            + "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') "
+            + "local tokens = tonumber(state[1]) or capacity "
+            + "local ts = tonumber(state[2]) or now "
+            + "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate) "
+            + "local wait = 0 "
+            + "if tokens >= 1 then tokens = tokens - 1 else wait = math.ceil((1 - tokens) / rate) end "
+            + "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now) "
+            + "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate)) "
+            + "return wait",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Cache<String, LocalBucket> localBuckets = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    // 0 when the call may proceed, otherwise the suggested wait in milliseconds
+    public long tryAcquire(String key, int capacity, Duration refillPeriod) {
+        double refillPerMs = (double) capacity / Math.max(1, refillPeriod.toMillis());
+        try {
+            Long wait = redisTemplate.execute(TAKE_TOKEN, List.of(KEY_PREFIX + key),
+                    String.valueOf(capacity), String.valueOf(refillPerMs));
+            return wait == null ? 0 : wait;
+        } catch (Exception e) {
+            log.debug("Rate limiting {} locally, Redis unavailable: {}", key, e.getMessage());
+            return localBuckets.get(key, k -> new LocalBucket(capacity)).tryAcquire(capacity, refillPerMs);
+        }
+    }
+
+    private static final class LocalBucket {
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        LocalBucket(int capacity) {
+            this.tokens = capacity;
+        }
+
+        synchronized long tryAcquire(int capacity, double refillPerMs) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1_000_000.0 * refillPerMs);
+            lastRefillNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerMs);
+        }
+    }
+}
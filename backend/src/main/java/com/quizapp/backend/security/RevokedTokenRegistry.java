@@ -0,0 +1,152 @@
+package com.quizapp.backend.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+// Revoked token IDs (jti), fronted by an in-process Bloom filter so only probable hits reach Redis
+@Component
+@Slf4j
+public class RevokedTokenRegistry implements MessageListener {
+
+    public static final String REVOKED_CHANNEL = "token:revoked";
+    private static final String REVOKED_PREFIX = "blacklist:jti:";
+
+    // Backoff between attempts at the first load, doubling up to the cap
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final TaskScheduler taskScheduler;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    // Non-null while a rebuild is scanning Redis, so revocations arriving meanwhile land in both filters
+    private volatile BloomFilter pending;
+    // False until a rebuild has loaded the revocations already in Redis; until then the filter can't rule
+    // anything out, so every check goes to Redis
+    private volatile boolean loaded;
+
+    public RevokedTokenRegistry(StringRedisTemplate redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                TaskScheduler taskScheduler,
+                                @Value("${app.jwt-blacklist.expected-revocations:100000}") long expectedRevocations,
+                                @Value("${app.jwt-blacklist.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.taskScheduler = taskScheduler;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(REVOKED_CHANNEL));
+    }
+
+    public void revoke(String jti, long ttlMs) {
+        if (ttlMs <= 0) {
+            return;
+        }
+        redisTemplate.opsForValue().set(REVOKED_PREFIX + jti, "true", ttlMs, TimeUnit.MILLISECONDS);
+        add(jti);
+        try {
+            redisTemplate.convertAndSend(REVOKED_CHANNEL, jti);
+        } catch (Exception e) {
+            log.warn("Could not publish revocation of token {}: {}", jti, e.getMessage());
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (loaded && !filter.mightContain(jti)) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(REVOKED_PREFIX + jti));
+        } catch (Exception e) {
+            // The filter says it was probably revoked, or hasn't been loaded yet, so fail closed while Redis is down
+            log.warn("Could not confirm revocation of token {}: {}", jti, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        add(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loadWithRetry(FIRST_RETRY_DELAY);
+    }
+
+    // Retries the first load with backoff rather than waiting for the next scheduled rebuild
+    private void loadWithRetry(Duration retryDelay) {
+        if (loaded || rebuild()) {
+            return;
+        }
+        log.warn("Revoked token filter not loaded, checking every token against Redis; retrying in {}", retryDelay);
+        Duration nextDelay = retryDelay.multipliedBy(2).compareTo(MAX_RETRY_DELAY) < 0
+                ? retryDelay.multipliedBy(2) : MAX_RETRY_DELAY;
+        taskScheduler.schedule(() -> loadWithRetry(nextDelay), Instant.now().plus(retryDelay));
+    }
+
+    // Bloom filters can't forget, so rebuild from the live keys to drop expired revocations
+    // and to pick up anything published while this node was disconnected
+    @Scheduled(fixedDelayString = "${app.jwt-blacklist.rebuild-interval:PT1H}",
+            initialDelayString = "${app.jwt-blacklist.rebuild-interval:PT1H}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Returns whether the filter was replaced
+    boolean rebuild() {
+        BloomFilter rebuilt = new BloomFilter(expectedRevocations, falsePositiveRate);
+        pending = rebuilt;
+        int count = 0;
+        try (Cursor<String> keys = redisTemplate.scan(
+                ScanOptions.scanOptions().match(REVOKED_PREFIX + "*").count(1000).build())) {
+            while (keys.hasNext()) {
+                rebuilt.put(keys.next().substring(REVOKED_PREFIX.length()));
+                count++;
+            }
+            filter = rebuilt;
+            loaded = true;
+            log.info("Rebuilt revoked token filter with {} entries", count);
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not rebuild revoked token filter, keeping the current one: {}", e.getMessage());
+            return false;
+        } finally {
+            pending = null;
+        }
+    }
+
+    private void add(String jti) {
+        filter.put(jti);
+        BloomFilter rebuilding = pending;
+        if (rebuilding != null) {
+            rebuilding.put(jti);
+        }
+    }
+}
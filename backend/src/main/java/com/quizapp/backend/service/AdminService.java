@@ -1,6 +1,9 @@
 package com.quizapp.backend.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -8,14 +11,22 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.quizapp.backend.config.TwoLevelCacheManager;
 import com.quizapp.backend.dto.UserDetailsDTO;
+import com.quizapp.backend.dto.UserDirectoryPageDTO;
+import com.quizapp.backend.dto.projection.UserDirectoryRow;
+import com.quizapp.backend.dto.request.UserDirectoryRequest;
 import com.quizapp.backend.dto.response.UserResponse;
 import com.quizapp.backend.exception.BadRequestException;
-import com.quizapp.backend.model.QuizAttempt;
 import com.quizapp.backend.model.User;
+import com.quizapp.backend.model.UserStats;
 import com.quizapp.backend.model.enums.Role;
-import com.quizapp.backend.repository.QuizAttemptRepository;
 import com.quizapp.backend.repository.UserRepository;
+import com.quizapp.backend.repository.UserStatsRepository;
+import com.quizapp.backend.security.PasswordHashingExecutor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,9 +34,17 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminService {
+    private static final int MAX_DIRECTORY_PAGE_SIZE = 100;
+    private static final int EXPORT_PAGE_SIZE = 500;
+
     private final UserRepository userRepository;
     private final UserService userService;
-    private final QuizAttemptRepository quizAttemptRepository;
+    private final RedisLeaderboard redisLeaderboard;
+    private final TwoLevelCacheManager cacheManager;
+    private final UserDetailService userDetailService;
+    private final PasswordHashingExecutor passwordHashing;
+    private final UserStatsRepository userStatsRepository;
+    private final ObjectMapper objectMapper;
     
     @Transactional
     public UserResponse getCurrentAdmin() {
@@ -43,27 +62,26 @@ public class AdminService {
         
         user.setEnabled(enabled);
         User savedUser = userRepository.save(user);
+        userDetailService.evict(username);
         
-        return mapToUserResponse(savedUser);
+        return mapToUserResponse(savedUser, userStatsRepository.findById(savedUser.getId()).orElse(null));
     }
 
     @Transactional
     public Object getAllAdmins() {
         // Get all users with ADMIN role from the repository
-        List<User> admins = userRepository.findAllByRole(Role.ADMIN);
+        List<Object[]> admins = userRepository.findAllWithStatsByRole(Role.ADMIN);
 
         // Map to UserResponse list
         return mapToUserResponseList(admins);
     }
     @Transactional(readOnly = true)
     public List<UserDetailsDTO> getAllUsersWithDetails() {
-        return userRepository.findAll().stream()
-                .map(user -> {
-                    int quizzesTaken = quizAttemptRepository.findByUserId(user.getId()).size();
-                    double averageScore = quizAttemptRepository.findByUserId(user.getId()).stream()
-                            .mapToInt(QuizAttempt::getScore)
-                            .average()
-                            .orElse(0.0);
+        // One query for users and their aggregates, instead of reading every attempt per user
+        return userRepository.findAllWithStats().stream()
+                .map(row -> {
+                    User user = (User) row[0];
+                    UserStats stats = statsOrEmpty(user, (UserStats) row[1]);
     
                     return UserDetailsDTO.builder()
                             .id(user.getId())
@@ -72,19 +90,65 @@ public class AdminService {
                             .email(user.getEmail())
                             .role(user.getRole().name().toLowerCase())
                             .enabled(user.isEnabled()) // Map the enabled field directly
-                            .quizzesTaken(quizzesTaken)
-                            .averageScore(Math.round(averageScore * 100.0) / 100.0) // Round to 2 decimal places
+                            .quizzesTaken(stats.getAttemptCount())
+                            .averageScore(stats.getAverageScore()) // Rounded to 2 decimal places
+                            .bestScore(stats.getBestScore())
+                            .lastActivityAt(stats.getLastActivityAt())
                             .joinDate(user.getCreatedAt().toLocalDate().toString())
                             .build();
                 })
                 .collect(Collectors.toList());
     }
 
-    
+
+    @Transactional(readOnly = true)
+    public UserDirectoryPageDTO getUserDirectory(UserDirectoryRequest request, String cursor, int size) {
+        if (size < 1 || size > MAX_DIRECTORY_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_DIRECTORY_PAGE_SIZE);
+        }
+        UserDirectoryCursor after = cursor != null ? UserDirectoryCursor.decode(cursor, request) : null;
+
+        // Fetch one extra row to know whether another page follows
+        List<UserDirectoryRow> rows = userRepository.findDirectoryPage(request,
+                after != null ? after.getValue() : null, after != null ? after.getId() : null, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<UserDirectoryRow> page = hasMore ? rows.subList(0, size) : rows;
+        UserDirectoryRow last = hasMore ? page.get(page.size() - 1) : null;
+
+        return UserDirectoryPageDTO.builder()
+                .items(page.stream().map(UserDirectoryRow::getUser).collect(Collectors.toList()))
+                .nextCursor(last != null ? UserDirectoryCursor.encode(request, last.getSortValue(), last.getUser().getId()) : null)
+                .build();
+    }
+
+    // Writes every matching user as one JSON object per line, reading them in keyset pages of the directory
+    // order. Each page is its own short query, so a slow client delays the next page instead of holding a pooled
+    // connection for the whole download (the path is excluded from open-in-view for the same reason). Rows
+    // changed between pages are read as they are then, like paging through the directory.
+    public void exportUserDirectory(UserDirectoryRequest request, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(UserDetailsDTO.class);
+        Object afterValue = null;
+        Long afterId = null;
+        List<UserDirectoryRow> page;
+        do {
+            page = userRepository.findDirectoryPage(request, afterValue, afterId, EXPORT_PAGE_SIZE);
+            for (UserDirectoryRow row : page) {
+                out.write(writer.writeValueAsBytes(row.getUser()));
+                out.write('\n');
+            }
+            out.flush();
+            if (!page.isEmpty()) {
+                UserDirectoryRow last = page.get(page.size() - 1);
+                afterValue = last.getSortValue();
+                afterId = last.getUser().getId();
+            }
+        } while (page.size() == EXPORT_PAGE_SIZE);
+    }
+
     @Transactional
     public Object getAllUsers() {
         // Get all users from the repository
-        List<User> users = userRepository.findAllByRole(Role.USER);
+        List<Object[]> users = userRepository.findAllWithStatsByRole(Role.USER);
 
         // Map to UserResponse list
         return mapToUserResponseList(users);
@@ -98,6 +162,9 @@ public class AdminService {
 
         // Delete the user
         userRepository.delete(user);
+        userStatsRepository.deleteByUserId(user.getId());
+        userDetailService.evict(user.getUsername());
+        redisLeaderboard.removeUser(user.getId());
     }
 
     @Transactional
@@ -109,21 +176,32 @@ public class AdminService {
 
         // Delete the user
         userRepository.delete(user);
+        userStatsRepository.deleteByUserId(user.getId());
+        userDetailService.evict(user.getUsername());
+        redisLeaderboard.removeUser(user.getId());
+    }
+
+    public Map<String, Map<String, Object>> getCacheStatistics() {
+        return cacheManager.getStatistics();
     }
 
-    private List<UserResponse> mapToUserResponseList(List<User> users) {
-        return users.stream()
-            .map(this::mapToUserResponse)
+    public Map<String, Object> getPasswordHashingStatistics() {
+        return passwordHashing.getStatistics();
+    }
+
+    // Rows are User, UserStats pairs from the repository's stats join
+    private List<UserResponse> mapToUserResponseList(List<Object[]> rows) {
+        return rows.stream()
+            .map(row -> mapToUserResponse((User) row[0], (UserStats) row[1]))
             .collect(Collectors.toList());
     }
 
-    UserResponse mapToUserResponse(User user) {
-        // Calculate quiz statistics
-        int quizzesTaken = quizAttemptRepository.findByUserId(user.getId()).size();
-        double averageScore = quizAttemptRepository.findByUserId(user.getId()).stream()
-                .mapToInt(QuizAttempt::getScore)
-                .average()
-                .orElse(0.0);
+    private UserStats statsOrEmpty(User user, UserStats stats) {
+        return stats != null ? stats : UserStats.empty(user.getId());
+    }
+
+    UserResponse mapToUserResponse(User user, UserStats userStats) {
+        UserStats stats = statsOrEmpty(user, userStats);
                 
         return UserResponse.builder()
                 .id(user.getId())
@@ -134,8 +212,8 @@ public class AdminService {
                 .role(user.getRole().name())
                 .enabled(user.isEnabled())
                 .joinDate(user.getCreatedAt().toLocalDate().toString())
-                .quizzesTaken(quizzesTaken) // Make sure field name matches exactly
-                .averageScore(Math.round(averageScore * 100.0) / 100.0) // Round to 2 decimal places
+                .quizzesTaken(stats.getAttemptCount()) // Make sure field name matches exactly
+                .averageScore(stats.getAverageScore()) // Rounded to 2 decimal places
                 .build();
     }
 }
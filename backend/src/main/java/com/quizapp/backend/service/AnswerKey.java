@@ -0,0 +1,78 @@
+package com.quizapp.backend.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Immutable, precompiled answer key for a single quiz: question ID -> sorted correct option IDs
+public final class AnswerKey {
+
+    private final Long quizId;
+    private final Map<Long, Entry> entries;
+
+    public AnswerKey(Long quizId, Map<Long, Entry> entries) {
+        this.quizId = quizId;
+        this.entries = Collections.unmodifiableMap(entries);
+    }
+
+    public Long getQuizId() {
+        return quizId;
+    }
+
+    public int getQuestionCount() {
+        return entries.size();
+    }
+
+    public Entry get(Long questionId) {
+        return entries.get(questionId);
+    }
+
+    public static final class Entry {
+        private final String questionText;
+        private final long[] correctOptionIds;
+        private final List<Long> correctOptionIdList;
+
+        public Entry(String questionText, long[] correctOptionIds) {
+            this.questionText = questionText;
+            this.correctOptionIds = correctOptionIds;
+            this.correctOptionIdList = Arrays.stream(correctOptionIds).boxed().toList();
+        }
+
+        public String getQuestionText() {
+            return questionText;
+        }
+
+        public List<Long> getCorrectOptionIds() {
+            return correctOptionIdList;
+        }
+
+        // Expects the output of normalize(), so no intermediate sets are built per answer
+        public boolean matches(long[] selectedOptionIds) {
+            return Arrays.equals(correctOptionIds, selectedOptionIds);
+        }
+    }
+
+    // Sorted, de-duplicated primitive copy of the submitted option IDs
+    public static long[] normalize(List<Long> optionIds) {
+        if (optionIds == null || optionIds.isEmpty()) {
+            return new long[0];
+        }
+        long[] values = new long[optionIds.size()];
+        int count = 0;
+        for (Long id : optionIds) {
+            if (id != null) {
+                values[count++] = id;
+            }
+        }
+        Arrays.sort(values, 0, count);
+
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || values[unique - 1] != values[i]) {
+                values[unique++] = values[i];
+            }
+        }
+        return unique == values.length ? values : Arrays.copyOf(values, unique);
+    }
+}
@@ -0,0 +1,137 @@
+package com.quizapp.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.quizapp.backend.repository.OptionRepository;
+import com.quizapp.backend.repository.QuestionRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process cache of compiled answer keys, built once per quiz version and evicted whenever its questions change.
+// Every eviction bumps a generation; a key built across an eviction is returned to its caller but never cached,
+// so a grader that read the old questions can't put them back after the change commits.
+// Evictions reach every node over Redis pub/sub; the TTL bounds staleness if a message is lost.
+@Component
+@Slf4j
+public class AnswerKeyCache implements MessageListener {
+
+    // Carries quiz ids whose answer key every node must drop
+    public static final String EVICT_CHANNEL = "answer-key:evict";
+
+    private final QuestionRepository questionRepository;
+    private final OptionRepository optionRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Cache<Long, AnswerKey> keys;
+    private final AtomicLong generation = new AtomicLong();
+
+    public AnswerKeyCache(QuestionRepository questionRepository, OptionRepository optionRepository,
+                          StringRedisTemplate redisTemplate,
+                          RedisMessageListenerContainer listenerContainer,
+                          @Value("${app.answer-key-cache.max-size:1000}") long maxSize,
+                          @Value("${app.answer-key-cache.ttl:10m}") Duration ttl) {
+        this.questionRepository = questionRepository;
+        this.optionRepository = optionRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(EVICT_CHANNEL));
+    }
+
+    public AnswerKey get(Long quizId) {
+        AnswerKey key = keys.getIfPresent(quizId);
+        if (key != null) {
+            return key;
+        }
+        long builtAt = generation.get();
+        AnswerKey built = build(quizId);
+        // Checked under the entry's lock, which evict() also takes, so no eviction can slip in between
+        AnswerKey cached = keys.asMap().compute(quizId, (id, existing) ->
+                existing != null ? existing : generation.get() == builtAt ? built : null);
+        return cached != null ? cached : built;
+    }
+
+    public void evict(Long quizId) {
+        if (quizId == null) {
+            return;
+        }
+        invalidate(quizId);
+
+        // Evict again once the change is visible, so a key built from the old rows before commit is dropped too;
+        // other nodes are only told then, once a rebuild would see the change
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(quizId);
+                    publishEvict(quizId);
+                }
+            });
+        } else {
+            publishEvict(quizId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        invalidate(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+    }
+
+    // Best effort: if Redis is down other nodes fall back on the TTL
+    private void publishEvict(Long quizId) {
+        try {
+            redisTemplate.convertAndSend(EVICT_CHANNEL, quizId.toString());
+        } catch (Exception e) {
+            log.warn("Could not publish answer key eviction for quiz {}: {}", quizId, e.getMessage());
+        }
+    }
+
+    private void invalidate(Long quizId) {
+        keys.asMap().compute(quizId, (id, existing) -> {
+            generation.incrementAndGet();
+            return null;
+        });
+    }
+
+    private AnswerKey build(Long quizId) {
+        Map<Long, List<Long>> correctByQuestion = new HashMap<>();
+        for (Object[] row : optionRepository.findCorrectOptionIdsByQuizId(quizId)) {
+            correctByQuestion.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+
+        Map<Long, AnswerKey.Entry> entries = new HashMap<>();
+        for (Object[] row : questionRepository.findIdAndTextByQuizId(quizId)) {
+            Long questionId = (Long) row[0];
+            long[] correct = AnswerKey.normalize(correctByQuestion.get(questionId));
+            entries.put(questionId, new AnswerKey.Entry((String) row[1], correct));
+        }
+        return new AnswerKey(quizId, entries);
+    }
+}
@@ -5,23 +5,28 @@ import com.quizapp.backend.dto.request.RegisterRequest;
 import com.quizapp.backend.dto.response.AuthResponse;
 import com.quizapp.backend.dto.response.UserResponse;
 import com.quizapp.backend.exception.BadRequestException;
+import com.quizapp.backend.exception.ServiceUnavailableException;
 import com.quizapp.backend.model.User;
 import com.quizapp.backend.repository.UserRepository;
+import com.quizapp.backend.repository.UserStatsRepository;
 import com.quizapp.backend.security.JwtTokenProvider;
+import com.quizapp.backend.security.PasswordHashingExecutor;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -35,76 +40,173 @@ import com.quizapp.backend.exception.TooManyRequestsException;
 @RequiredArgsConstructor
 @Slf4j
 public class AuthService {
-    private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final StringRedisTemplate redisTemplate;
-
-    @Transactional
-    public AuthResponse authenticateUser(AuthRequest authRequest) {
+    private final PasswordHashingExecutor passwordHashing;
+    private final UserStatsRepository userStatsRepository;
+
+    private static final String REFRESH_PREFIX = "refresh:";
+    private static final String FAMILY_PREFIX = "family:";
+    // Per-user sorted set of refresh tokens scored by expiry (epoch ms), so revoking them never needs a keyspace
+    // scan; expired members are trimmed whenever a token is added, which keeps the index bounded
+    private static final String USER_REFRESH_TOKENS_PREFIX = "user_refresh_tokens:";
+
+    // Defines zindex(key, score): indexes written before tokens were scored are plain sets, so one is converted
+    // in place with every member scored as given, since the old entries don't record their expiry
+    private static final String CONVERT_LEGACY_INDEX =
+            "local function zindex(key, score) "
+            + "  if redis.call('TYPE', key).ok == 'set' then "
+            + "    local legacy = redis.call('SMEMBERS', key) "
+            + "    redis.call('DEL', key) "
+            + "    for _, token in ipairs(legacy) do redis.call('ZADD', key, score, token) end "
+            + "  end "
+            + "end ";
+
+    // KEYS[1] refresh key, KEYS[2] family key, KEYS[3] user token index
+    // ARGV[1] username, ARGV[2] family, ARGV[3] TTL in ms, ARGV[4] refresh token, ARGV[5] now, ARGV[6] expiry
+    private static final DefaultRedisScript<Long> STORE_REFRESH_TOKEN = new DefaultRedisScript<>(
+            CONVERT_LEGACY_INDEX
+            + "zindex(KEYS[3], ARGV[6]) "
+            + "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3]) "
+            + "redis.call('SET', KEYS[2], ARGV[2], 'PX', ARGV[3]) "
+            + "redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', ARGV[5]) "
+            + "redis.call('ZADD', KEYS[3], ARGV[6], ARGV[4]) "
+            + "redis.call('PEXPIRE', KEYS[3], ARGV[3]) "
+            + "return 1",
+            Long.class);
+
+    // KEYS[1] refresh key, KEYS[2] family key, KEYS[3] user token index
+    // ARGV[1] username, ARGV[2] refresh token, ARGV[3] latest possible expiry
+    // Only a token the user owns is deleted; it is dropped from the index either way.
+    private static final DefaultRedisScript<Long> REVOKE_REFRESH_TOKEN = new DefaultRedisScript<>(
+            CONVERT_LEGACY_INDEX
+            + "zindex(KEYS[3], ARGV[3]) "
+            + "local revoked = 0 "
+            + "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+            + "  revoked = redis.call('DEL', KEYS[1], KEYS[2]) "
+            + "end "
+            + "redis.call('ZREM', KEYS[3], ARGV[2]) "
+            + "return revoked",
+            Long.class);
+
+    private static final String REFRESH_RATE_LIMIT_PREFIX = "rateLimit:refresh:";
+    private static final int MAX_REFRESHES_PER_WINDOW = 5;
+    private static final int REFRESH_RATE_LIMIT_WINDOW_SECONDS = 60;
+
+    private static final long ROTATION_REVOKED = 1;
+    private static final long ROTATION_MISMATCH = 2;
+    private static final long ROTATION_RATE_LIMITED = 3;
+
+    // KEYS[1] rate limit, KEYS[2..3] old refresh/family, KEYS[4..5] new refresh/family, KEYS[6] user token index
+    // ARGV[1] username, ARGV[2] old token, ARGV[3] new token, ARGV[4] TTL in ms,
+    // ARGV[5] max refreshes, ARGV[6] window in seconds, ARGV[7] now, ARGV[8] expiry of the new token
+    // The family id carries over to the new token. A missing old token leaves revoking everything the user holds
+    // to the caller, since those keys are only known once the index has been read.
+    private static final DefaultRedisScript<Long> ROTATE_REFRESH_TOKEN = new DefaultRedisScript<>(
+            CONVERT_LEGACY_INDEX
+            + "local attempts = redis.call('INCR', KEYS[1]) "
+            + "if attempts == 1 then redis.call('EXPIRE', KEYS[1], ARGV[6]) end "
+            + "if attempts > tonumber(ARGV[5]) then return 3 end "
+            + "local owner = redis.call('GET', KEYS[2]) "
+            + "local family = redis.call('GET', KEYS[3]) "
+            + "zindex(KEYS[6], ARGV[8]) "
+            + "if not owner or not family then return 1 end "
+            + "if owner ~= ARGV[1] then return 2 end "
+            + "redis.call('DEL', KEYS[2], KEYS[3]) "
+            + "redis.call('ZREM', KEYS[6], ARGV[2]) "
+            + "redis.call('SET', KEYS[4], ARGV[1], 'PX', ARGV[4]) "
+            + "redis.call('SET', KEYS[5], family, 'PX', ARGV[4]) "
+            + "redis.call('ZREMRANGEBYSCORE', KEYS[6], '-inf', ARGV[7]) "
+            + "redis.call('ZADD', KEYS[6], ARGV[8], ARGV[3]) "
+            + "redis.call('PEXPIRE', KEYS[6], ARGV[4]) "
+            + "return 0",
+            Long.class);
+
+    // Tokens revoked per script call when a reused refresh token revokes everything the user holds
+    private static final int REVOKE_ALL_BATCH = 500;
+
+    // KEYS[1] user token index, then the refresh and family key of each token in ARGV
+    // ARGV the tokens, as read from the index
+    // Returns how many tokens are still indexed, i.e. ones added since the index was read.
+    private static final DefaultRedisScript<Long> REVOKE_REFRESH_TOKENS = new DefaultRedisScript<>(
+            "for i = 1, #ARGV do "
+            + "  redis.call('DEL', KEYS[2 * i], KEYS[2 * i + 1]) "
+            + "  redis.call('ZREM', KEYS[1], ARGV[i]) "
+            + "end "
+            + "return redis.call('ZCARD', KEYS[1])",
+            Long.class);
+
+    // The BCrypt check runs on the bounded hashing pool; the request thread is released until it completes, and
+    // token issuance continues on the application task executor so the hashing threads only hash
+    // Timed until the future completes, so this includes the wait for the hashing pool
+    @Timed(value = "auth.login", histogram = true)
+    public CompletableFuture<AuthResponse> authenticateUser(AuthRequest authRequest) {
         // Check if the user exists by email
         User user = userRepository.findByEmail(authRequest.getEmail())
                 .orElseThrow(() -> new BadRequestException("No user found with the provided email"));
 
-        try {
-            // Authenticate user credentials
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            user.getUsername(), 
-                            authRequest.getPassword()
-                    )
-            );
-
-            // Set authentication in security context
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            
-          
-
-            // Generate JWT tokens
-            String accessToken = tokenProvider.generateToken(authentication);
-            String refreshToken = tokenProvider.generateRefreshToken(authentication);
-            String family = UUID.randomUUID().toString();
-            // Store refresh token with family in Redis
-            String redisKey = "refresh:" + refreshToken;
-            String familyKey = "family:" + refreshToken;
-            redisTemplate.opsForValue().set(
-                redisKey,
-                authentication.getName(),
-                tokenProvider.getRefreshTokenExpirationInMs(),
-                TimeUnit.MILLISECONDS
-            );
-    
-            redisTemplate.opsForValue().set(
-                familyKey,
-                family,
-                tokenProvider.getRefreshTokenExpirationInMs(),
-                TimeUnit.MILLISECONDS
-            );
-
-
-            // Store refresh token in Redis
-            redisTemplate.opsForValue().set(
-                    "refresh:" + refreshToken,
-                    authentication.getName(),
-                    tokenProvider.getRefreshTokenExpirationInMs(),
-                    TimeUnit.MILLISECONDS
-            );
-
-            // Return the authentication response
-            return AuthResponse.builder()
-                    .accessToken(accessToken)
-                    .refreshToken(refreshToken)
-                    .tokenType("Bearer")
-                    .expiresIn(tokenProvider.getJwtExpirationInMs())
-                    .user(mapToUserResponse(user))
-                    .build();
+        return passwordHashing.matches(authRequest.getPassword(), user.getPassword())
+                .thenApply(matches -> {
+                    if (!matches) {
+                        throw new BadRequestException("Invalid email or password");
+                    }
+                    // Checked after the password so the response doesn't reveal the account state
+                    if (!user.isEnabled()) {
+                        throw new BadRequestException("Account is disabled");
+                    }
+                    rehashIfNeeded(user, authRequest.getPassword());
+                    try {
+                        return issueTokens(user);
+                    } catch (Exception e) {
+                        throw new BadRequestException("Invalid email or password");
+                    }
+                });
+    }
 
-        } catch (Exception e) {
-            throw new BadRequestException("Invalid email or password");
+    private AuthResponse issueTokens(User user) {
+        // Generate JWT tokens
+        String accessToken = tokenProvider.generateToken(user.getUsername());
+        String refreshToken = tokenProvider.generateRefreshToken(user.getUsername());
+        // Store refresh token, its family and the user index in one round-trip
+        long now = System.currentTimeMillis();
+        long ttl = tokenProvider.getRefreshTokenExpirationInMs();
+        redisTemplate.execute(STORE_REFRESH_TOKEN,
+                List.of(REFRESH_PREFIX + refreshToken, FAMILY_PREFIX + refreshToken,
+                        USER_REFRESH_TOKENS_PREFIX + user.getUsername()),
+                user.getUsername(), UUID.randomUUID().toString(), String.valueOf(ttl), refreshToken,
+                String.valueOf(now), String.valueOf(now + ttl));
+
+        // Return the authentication response
+        return AuthResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(refreshToken)
+                .tokenType("Bearer")
+                .expiresIn(tokenProvider.getJwtExpirationInMs())
+                .user(mapToUserResponse(user))
+                .build();
+    }
+
+    // Re-hashes with the configured cost when the stored hash is weaker, so the cost can be raised
+    // without forcing password resets. Best effort: skipped when the hashing pool is saturated.
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashing.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            passwordHashing.encode(rawPassword)
+                    .thenAccept(hash -> userRepository.updatePassword(user.getId(), hash))
+                    .exceptionally(e -> {
+                        log.warn("Could not rehash password for user {}: {}", user.getId(), e.getMessage());
+                        return null;
+                    });
+        } catch (ServiceUnavailableException e) {
+            log.debug("Skipping password rehash for user {}, hashing pool is busy", user.getId());
         }
     }
 
+    @Timed(value = "auth.refresh", histogram = true)
     @Transactional
     public AuthResponse refreshAccessToken(String refreshToken) {
         // Validate the refresh token
@@ -112,51 +214,42 @@ public class AuthService {
             throw new BadRequestException("Invalid or expired refresh token");
         }
 
-        // Verify token exists in Redis
-        String redisKey = "refresh:" + refreshToken;
-        String familyKey = "family:" + refreshToken;
-        String storedUsername = redisTemplate.opsForValue().get(redisKey);
-        String tokenFamily = redisTemplate.opsForValue().get(familyKey);
-        if (storedUsername == null || tokenFamily == null) {
-            // Possible reuse attack - invalidate all user tokens
-            String username = tokenProvider.getUsernameFromRefreshToken(refreshToken);
-            invalidateAllUserTokens(username);
-            throw new BadRequestException("Refresh token has been revoked");
-        }
-
-        // Get username from token and verify it matches Redis
         String tokenUsername = tokenProvider.getUsernameFromRefreshToken(refreshToken);
-        if (!tokenUsername.equals(storedUsername)) {
-            throw new BadRequestException("Token mismatch");
-        }
 
         // Get user details
         User user = userRepository.findByUsername(tokenUsername)
             .orElseThrow(() -> new BadRequestException("User not found"));
+        if (!user.isEnabled()) {
+            throw new BadRequestException("Account is disabled");
+        }
 
         // Generate new tokens
         String newAccessToken = tokenProvider.generateToken(tokenUsername);
         String newRefreshToken = tokenProvider.generateRefreshToken(tokenUsername);
-        String newFamily = UUID.randomUUID().toString();
-
-        // Update Redis - remove old token and store new one
-        redisTemplate.delete(redisKey);
-        redisTemplate.delete(familyKey);
-        // Store new refresh token with family
-        String newRedisKey = "refresh:" + newRefreshToken;
-        String newFamilyKey = "family:" + newRefreshToken;
-        redisTemplate.opsForValue().set(
-            "refresh:" + newRefreshToken,
-            tokenUsername,
-            tokenProvider.getRefreshTokenExpirationInMs(),
-            TimeUnit.MILLISECONDS
-        );
-        redisTemplate.opsForValue().set(
-            newFamilyKey,
-            newFamily,
-            tokenProvider.getRefreshTokenExpirationInMs(),
-            TimeUnit.MILLISECONDS
-        );
+
+        // Rate limit, reuse detection and rotation run atomically in a single script
+        long now = System.currentTimeMillis();
+        long ttl = tokenProvider.getRefreshTokenExpirationInMs();
+        Long outcome = redisTemplate.execute(ROTATE_REFRESH_TOKEN,
+                List.of(REFRESH_RATE_LIMIT_PREFIX + tokenUsername,
+                        REFRESH_PREFIX + refreshToken, FAMILY_PREFIX + refreshToken,
+                        REFRESH_PREFIX + newRefreshToken, FAMILY_PREFIX + newRefreshToken,
+                        USER_REFRESH_TOKENS_PREFIX + tokenUsername),
+                tokenUsername, refreshToken, newRefreshToken, String.valueOf(ttl),
+                String.valueOf(MAX_REFRESHES_PER_WINDOW), String.valueOf(REFRESH_RATE_LIMIT_WINDOW_SECONDS),
+                String.valueOf(now), String.valueOf(now + ttl));
+
+        if (outcome == null || outcome == ROTATION_REVOKED) {
+            // Possible reuse attack - revoke all user tokens
+            revokeAllRefreshTokens(tokenUsername);
+            throw new BadRequestException("Refresh token has been revoked");
+        }
+        if (outcome == ROTATION_MISMATCH) {
+            throw new BadRequestException("Token mismatch");
+        }
+        if (outcome == ROTATION_RATE_LIMITED) {
+            throw new TooManyRequestsException("Too many refresh attempts. Please wait 1 minute.");
+        }
 
         return AuthResponse.builder()
             .accessToken(newAccessToken)
@@ -166,33 +259,35 @@ public class AuthService {
             .user(mapToUserResponse(user))  // Include user data in response
             .build();
     }
-    private void invalidateAllUserTokens(String username) {
-    // Find all refresh tokens for user
-        Set<String> userTokens = redisTemplate.keys("refresh:*").stream()
-            .filter(key -> username.equals(redisTemplate.opsForValue().get(key)))
-            .collect(Collectors.toSet());
-
-        // Delete all tokens and their families
-        userTokens.forEach(token -> {
-            redisTemplate.delete(token);
-            redisTemplate.delete("family:" + token.substring("refresh:".length()));
-        });
+    // Revokes one refresh token and drops it from the user's index in one round-trip
+    private void revokeRefreshToken(String username, String refreshToken) {
+        redisTemplate.execute(REVOKE_REFRESH_TOKEN,
+                List.of(REFRESH_PREFIX + refreshToken, FAMILY_PREFIX + refreshToken,
+                        USER_REFRESH_TOKENS_PREFIX + username),
+                username, refreshToken,
+                String.valueOf(System.currentTimeMillis() + tokenProvider.getRefreshTokenExpirationInMs()));
     }
-    private void checkRefreshRateLimit(String username) {
-        String rateLimitKey = "rateLimit:refresh:" + username;
-        Long attempts = redisTemplate.opsForValue().increment(rateLimitKey);
-        
-        if (attempts == 1) {
-            redisTemplate.expire(rateLimitKey, 1, TimeUnit.MINUTES);
-        }
-        
-        if (attempts > 5) {
-            throw new TooManyRequestsException("Too many refresh attempts. Please wait 1 minute.");
-        }
-    }
-    
 
-    
+
+    // Keys are read from the index and declared to the script in batches. Tokens issued while this runs (a
+    // concurrent rotation) are still indexed afterwards and picked up by the next pass.
+    private void revokeAllRefreshTokens(String username) {
+        String indexKey = USER_REFRESH_TOKENS_PREFIX + username;
+        Long remaining;
+        do {
+            Set<String> tokens = redisTemplate.opsForZSet().range(indexKey, 0, REVOKE_ALL_BATCH - 1);
+            if (tokens == null || tokens.isEmpty()) {
+                return;
+            }
+            List<String> keys = new ArrayList<>(2 * tokens.size() + 1);
+            keys.add(indexKey);
+            for (String token : tokens) {
+                keys.add(REFRESH_PREFIX + token);
+                keys.add(FAMILY_PREFIX + token);
+            }
+            remaining = redisTemplate.execute(REVOKE_REFRESH_TOKENS, keys, tokens.toArray());
+        } while (remaining != null && remaining > 0);
+    }
 
     @Transactional
     public UserResponse registerUser(RegisterRequest registerRequest) {
@@ -228,12 +323,13 @@ public class AuthService {
 
         // Save user
         User savedUser = userRepository.save(user);
+        userStatsRepository.createEmpty(savedUser.getId());
 
         return mapToUserResponse(savedUser);
     }
 
     @Transactional
-    public void logoutUser(HttpServletRequest request) {
+    public void logoutUser(HttpServletRequest request, String refreshToken) {
         System.out.println("1 Logging out user...");
         try {
             System.out.println("2 Logging out user...");
@@ -253,14 +349,9 @@ public class AuthService {
                 invalidateToken(accessToken);
             }
 
-            // Remove all refresh tokens for the user from Redis
-            String userRefreshTokensKey = "user_refresh_tokens:" + username;
-            Set<String> refreshTokens = redisTemplate.opsForSet().members(userRefreshTokensKey);
-            if (refreshTokens != null) {
-                for (String refreshToken : refreshTokens) {
-                    redisTemplate.delete("refresh:" + refreshToken);
-                }
-                redisTemplate.delete(userRefreshTokensKey);
+            // Revoke only this session's refresh token, so the user's other devices stay signed in
+            if (refreshToken != null) {
+                revokeRefreshToken(username, refreshToken);
             }
 
             // Clear security context
@@ -279,8 +370,7 @@ public class AuthService {
         try {
             long expiration = tokenProvider.getRemainingExpiration(token);
             if (expiration > 0) {
-                String blacklistKey = "blacklist:" + token;
-                redisTemplate.opsForValue().set(blacklistKey, "true", expiration, TimeUnit.MILLISECONDS);
+                tokenProvider.blacklistToken(token);
                 
                 // Add to user's blacklisted tokens
                 String username = tokenProvider.getUsernameFromJWT(token);
@@ -0,0 +1,153 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.model.JobWatermark;
+import com.quizapp.backend.repository.JobWatermarkRepository;
+import com.quizapp.backend.repository.QuizAttemptRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Derives quiz and question difficulty from how players actually score. Completed attempts are folded into
+// running per-quiz sums (scored_attempts, score_sum, max_score_sum) from a (completed_at, id) watermark, so
+// history is never rescanned; question correct rates come from the counters QuestionStatsCollector keeps.
+// The watermark, the sums and the labels are all written in one transaction per batch under a lock on the
+// watermark row, so every attempt is counted exactly once even with several nodes running the job.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DifficultyRecalculationJob {
+
+    static final String WATERMARK = "difficulty-recalculation";
+
+    // Share of the available points scored: at least EASY_RATE is easy, below HARD_RATE is hard
+    private static final double EASY_RATE = 0.70;
+    private static final double HARD_RATE = 0.40;
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String ADD_SQL = "UPDATE quizzes SET scored_attempts = scored_attempts + ?, "
+            + "score_sum = score_sum + ?, max_score_sum = max_score_sum + ? WHERE id = ?";
+
+    private static final String CLASSIFY_QUIZZES_SQL = "UPDATE quizzes SET empirical_difficulty = CASE "
+            + "WHEN scored_attempts < :minSamples THEN 'UNASSIGNED' "
+            + "WHEN score_sum >= :easyRate * max_score_sum THEN 'EASY' "
+            + "WHEN score_sum < :hardRate * max_score_sum THEN 'HARD' "
+            + "ELSE 'MEDIUM' END WHERE id IN (:ids)";
+
+    private static final String CLASSIFY_QUESTIONS_SQL = "UPDATE questions SET empirical_difficulty = CASE "
+            + "WHEN COALESCE(attempts, 0) < :minSamples THEN 'UNASSIGNED' "
+            + "WHEN COALESCE(correct_selections, 0) >= :easyRate * attempts THEN 'EASY' "
+            + "WHEN COALESCE(correct_selections, 0) < :hardRate * attempts THEN 'HARD' "
+            + "ELSE 'MEDIUM' END WHERE quiz_id IN (:ids)";
+
+    private final JobWatermarkRepository jobWatermarkRepository;
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.difficulty.min-attempts:10}")
+    private int minAttempts;
+
+    @Value("${app.difficulty.min-answers:20}")
+    private int minAnswers;
+
+    // Attempts completing within this window are left for the next run, so one committed slightly out of
+    // completed_at order is not skipped by a watermark that has already moved past it
+    @Value("${app.difficulty.settle-delay:PT1M}")
+    private Duration settleDelay;
+
+    @Scheduled(fixedDelayString = "${app.difficulty.recalc-interval:PT15M}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (Exception e) {
+            log.warn("Difficulty recalculation failed: {}", e.getMessage());
+        }
+    }
+
+    public void run() {
+        long started = System.currentTimeMillis();
+        LocalDateTime upTo = LocalDateTime.now().minus(settleDelay);
+        int attempts = 0;
+        int quizzes = 0;
+        int[] batch;
+        do {
+            batch = transactionTemplate.execute(status -> processBatch(upTo));
+            attempts += batch[0];
+            quizzes += batch[1];
+        } while (batch[0] == BATCH_SIZE);
+        if (attempts > 0) {
+            log.info("Recalculated difficulty from {} attempts across {} quiz updates in {} ms",
+                    attempts, quizzes, System.currentTimeMillis() - started);
+        }
+    }
+
+    // Returns the number of attempts read and quizzes updated
+    private int[] processBatch(LocalDateTime upTo) {
+        jobWatermarkRepository.createIfAbsent(WATERMARK);
+        JobWatermark watermark = jobWatermarkRepository.findForUpdate(WATERMARK)
+                .orElseThrow(() -> new IllegalStateException("Watermark " + WATERMARK + " missing"));
+
+        List<Object[]> rows = quizAttemptRepository.findCompletedAfter(watermark.getLastCompletedAt(),
+                watermark.getLastId(), upTo, PageRequest.of(0, BATCH_SIZE));
+        if (rows.isEmpty()) {
+            return new int[] { 0, 0 };
+        }
+
+        // quizId -> attempts, score sum, max score sum; sorted so concurrent writers lock rows in the same order
+        Map<Long, long[]> totals = new TreeMap<>();
+        for (Object[] row : rows) {
+            Integer score = (Integer) row[2];
+            Integer maxPossibleScore = (Integer) row[3];
+            // Attempts without a score to compare against still move the watermark on
+            if (maxPossibleScore == null || maxPossibleScore <= 0) {
+                continue;
+            }
+            long[] quizTotals = totals.computeIfAbsent((Long) row[1], id -> new long[3]);
+            quizTotals[0]++;
+            quizTotals[1] += score != null ? score : 0;
+            quizTotals[2] += maxPossibleScore;
+        }
+
+        if (!totals.isEmpty()) {
+            List<Object[]> updates = new ArrayList<>(totals.size());
+            totals.forEach((quizId, quizTotals) ->
+                    updates.add(new Object[] { quizTotals[0], quizTotals[1], quizTotals[2], quizId }));
+            jdbcTemplate.batchUpdate(ADD_SQL, updates);
+            classify(new ArrayList<>(totals.keySet()));
+        }
+
+        Object[] last = rows.get(rows.size() - 1);
+        watermark.setLastId((Long) last[0]);
+        watermark.setLastCompletedAt((LocalDateTime) last[4]);
+        jobWatermarkRepository.save(watermark);
+        return new int[] { rows.size(), totals.size() };
+    }
+
+    private void classify(List<Long> quizIds) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("easyRate", EASY_RATE)
+                .addValue("hardRate", HARD_RATE)
+                .addValue("ids", quizIds);
+        namedParameterJdbcTemplate.update(CLASSIFY_QUIZZES_SQL,
+                new MapSqlParameterSource(parameters.getValues()).addValue("minSamples", minAttempts));
+        namedParameterJdbcTemplate.update(CLASSIFY_QUESTIONS_SQL,
+                new MapSqlParameterSource(parameters.getValues()).addValue("minSamples", minAnswers));
+    }
+}
@@ -0,0 +1,256 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.repository.QuestionRepository;
+import com.quizapp.backend.repository.QuizAttemptRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Rebuilds the Redis leaderboards from MySQL on cold start and periodically to repair drift
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardRebuildJob {
+
+    private static final String STAGING_PREFIX = "leaderboard:rebuild:";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(10);
+    private static final int PIPELINE_CHUNK = 500;
+    // Completions this close before the snapshot was read are re-applied after the swap, covering attempts
+    // whose transactions were still committing when MySQL was read
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+    // Releases the lock only if this run still holds it, so an expired run can't drop a newer run's lock
+    private static final DefaultRedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final QuizAttemptRepository attemptRepository;
+    private final QuestionRepository questionRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisLeaderboard redisLeaderboard;
+    private final TaskScheduler taskScheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            if (redisLeaderboard.boardsExist()) {
+                redisLeaderboard.markReady();
+            } else {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("Leaderboard warm-up failed, serving leaderboards from the database: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.leaderboard.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Scheduled leaderboard rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    // Called by reads that found the boards gone; the node reads from the database until the rebuild is done
+    public void rebuildLostBoards() {
+        if (redisLeaderboard.markLost()) {
+            log.warn("Redis leaderboards are missing, rebuilding them from the database");
+            taskScheduler.schedule(this::scheduledRebuild, Instant.now());
+        }
+    }
+
+    public void rebuild() {
+        // Only one node rebuilds at a time
+        String token = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RedisLeaderboard.REBUILD_LOCK_KEY, token, LOCK_TTL))) {
+            log.info("Leaderboard rebuild already running elsewhere, skipping");
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            LocalDateTime snapshotAt = LocalDateTime.now();
+            int boards = rebuildBoards();
+            // Completions recorded between the MySQL read and the swap went to the boards that were replaced
+            int caughtUp = catchUp(snapshotAt.minus(CATCH_UP_MARGIN));
+            redisLeaderboard.markReady();
+            redisLeaderboard.evictCaches();
+            log.info("Rebuilt {} quiz leaderboards in {} ms ({} users re-applied)",
+                    boards, System.currentTimeMillis() - started, caughtUp);
+        } finally {
+            redisTemplate.execute(RELEASE_LOCK, List.of(RedisLeaderboard.REBUILD_LOCK_KEY), token);
+        }
+    }
+
+    private int catchUp(LocalDateTime since) {
+        List<Long> userIds = attemptRepository.findUserIdsCompletedSince(since);
+        Map<Long, Integer> quizMax = new HashMap<>();
+        for (Long userId : userIds) {
+            List<Object[]> rows = attemptRepository.findCompletedBestScoresByUserId(userId);
+            if (rows.isEmpty()) {
+                continue;
+            }
+            Map<Long, Integer> bestScores = new HashMap<>();
+            long completed = 0;
+            for (Object[] row : rows) {
+                Long quizId = (Long) row[1];
+                bestScores.put(quizId, row[2] != null ? ((Number) row[2]).intValue() : 0);
+                completed += ((Number) row[3]).longValue();
+                quizMax.computeIfAbsent(quizId, id -> (int) questionRepository.countByQuizId(id));
+            }
+            Object[] user = rows.get(0);
+            redisLeaderboard.resyncUser(userId, (String) user[4], (String) user[5], (String) user[6],
+                    completed, bestScores, quizMax);
+        }
+        return userIds.size();
+    }
+
+    private int rebuildBoards() {
+        Map<Long, Integer> quizMax = new HashMap<>();
+        for (Object[] row : questionRepository.countQuestionsPerQuiz()) {
+            quizMax.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+
+        Map<Long, Map<String, String>> users = new HashMap<>();
+        Map<Long, long[]> userTotals = new HashMap<>(); // score total, completed, max total
+        List<String[]> quizEntries = new ArrayList<>(); // quizId, userId, best score
+        Set<String> quizIds = new HashSet<>();
+
+        for (Object[] row : attemptRepository.findCompletedBestScores()) {
+            Long userId = (Long) row[0];
+            Long quizId = (Long) row[1];
+            int best = row[2] != null ? ((Number) row[2]).intValue() : 0;
+            long completed = ((Number) row[3]).longValue();
+
+            long[] totals = userTotals.computeIfAbsent(userId, id -> new long[3]);
+            totals[0] += best;
+            totals[1] += completed;
+            totals[2] += quizMax.getOrDefault(quizId, 0);
+            users.computeIfAbsent(userId, id -> Map.of(
+                    "username", (String) row[4],
+                    "firstName", row[5] != null ? (String) row[5] : "",
+                    "lastName", row[6] != null ? (String) row[6] : ""));
+
+            quizEntries.add(new String[] { quizId.toString(), userId.toString(), Integer.toString(best) });
+            quizIds.add(quizId.toString());
+        }
+
+        // Stage the new boards and user hashes next to the live ones
+        Set<String> previousQuizIds = redisTemplate.opsForSet().members(RedisLeaderboard.QUIZZES_KEY);
+        Set<String> previousUserIds = redisTemplate.opsForZSet().range(RedisLeaderboard.GLOBAL_KEY, 0, -1);
+        List<String> stagedKeys = new ArrayList<>();
+        stagedKeys.add(STAGING_PREFIX + "global");
+        stagedKeys.add(STAGING_PREFIX + "quiz-max");
+        stagedKeys.add(STAGING_PREFIX + "quizzes");
+        quizIds.forEach(id -> stagedKeys.add(STAGING_PREFIX + "quiz:" + id));
+        userTotals.keySet().forEach(id -> stagedKeys.add(STAGING_PREFIX + "user:" + id));
+        for (int from = 0; from < stagedKeys.size(); from += PIPELINE_CHUNK) {
+            redisTemplate.delete(stagedKeys.subList(from, Math.min(from + PIPELINE_CHUNK, stagedKeys.size())));
+        }
+
+        for (int from = 0; from < quizEntries.size(); from += PIPELINE_CHUNK) {
+            List<String[]> chunk = quizEntries.subList(from, Math.min(from + PIPELINE_CHUNK, quizEntries.size()));
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (String[] entry : chunk) {
+                    stringConnection.zAdd(STAGING_PREFIX + "quiz:" + entry[0], Double.parseDouble(entry[2]), entry[1]);
+                }
+                return null;
+            });
+        }
+
+        List<Long> userIds = new ArrayList<>(userTotals.keySet());
+        for (int from = 0; from < userIds.size(); from += PIPELINE_CHUNK) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + PIPELINE_CHUNK, userIds.size()));
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (Long userId : chunk) {
+                    long[] totals = userTotals.get(userId);
+                    Map<String, String> user = new HashMap<>(users.get(userId));
+                    user.put("completed", Long.toString(totals[1]));
+                    user.put("maxTotal", Long.toString(totals[2]));
+                    stringConnection.zAdd(STAGING_PREFIX + "global", totals[0], userId.toString());
+                    stringConnection.hMSet(STAGING_PREFIX + "user:" + userId, user);
+                }
+                return null;
+            });
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            quizMax.forEach((quizId, max) -> {
+                if (quizIds.contains(quizId.toString())) {
+                    stringConnection.hSet(STAGING_PREFIX + "quiz-max", quizId.toString(), max.toString());
+                }
+            });
+            if (!quizIds.isEmpty()) {
+                stringConnection.sAdd(STAGING_PREFIX + "quizzes", quizIds.toArray(new String[0]));
+            }
+            return null;
+        });
+
+        // Swap staged boards and user hashes in, and drop boards and users that no longer have completions.
+        // MULTI/EXEC applies the swap as one step, so no reader sees some boards replaced and others not.
+        List<String> staleKeys = new ArrayList<>();
+        if (previousQuizIds != null) {
+            previousQuizIds.stream()
+                    .filter(quizId -> !quizIds.contains(quizId))
+                    .forEach(quizId -> staleKeys.add(RedisLeaderboard.quizKey(Long.valueOf(quizId))));
+        }
+        if (previousUserIds != null) {
+            previousUserIds.stream()
+                    .filter(userId -> !userTotals.containsKey(Long.valueOf(userId)))
+                    .forEach(userId -> staleKeys.add(RedisLeaderboard.userKey(Long.valueOf(userId))));
+        }
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+                redis.multi();
+                if (quizIds.isEmpty()) {
+                    redis.delete(List.of(RedisLeaderboard.GLOBAL_KEY, RedisLeaderboard.QUIZ_MAX_KEY,
+                            RedisLeaderboard.QUIZZES_KEY));
+                } else {
+                    redis.rename(STAGING_PREFIX + "global", RedisLeaderboard.GLOBAL_KEY);
+                    redis.rename(STAGING_PREFIX + "quiz-max", RedisLeaderboard.QUIZ_MAX_KEY);
+                    redis.rename(STAGING_PREFIX + "quizzes", RedisLeaderboard.QUIZZES_KEY);
+                }
+                for (String quizId : quizIds) {
+                    redis.rename(STAGING_PREFIX + "quiz:" + quizId, RedisLeaderboard.quizKey(Long.valueOf(quizId)));
+                }
+                for (Long userId : userIds) {
+                    redis.rename(STAGING_PREFIX + "user:" + userId, RedisLeaderboard.userKey(userId));
+                }
+                if (!staleKeys.isEmpty()) {
+                    redis.delete(staleKeys);
+                }
+                return redis.exec();
+            }
+        });
+        return quizIds.size();
+    }
+}
@@ -1,68 +1,195 @@
 package com.quizapp.backend.service;
 
+import com.quizapp.backend.config.CacheConfig;
 import com.quizapp.backend.dto.LeaderboardEntryDTO;
-import com.quizapp.backend.model.QuizAttempt;
+import com.quizapp.backend.dto.LeaderboardPositionDTO;
+import com.quizapp.backend.dto.projection.LeaderboardEntryProjection;
+import com.quizapp.backend.exception.BadRequestException;
+import com.quizapp.backend.model.enums.AttemptStatus;
 import com.quizapp.backend.repository.QuizAttemptRepository;
+import com.quizapp.backend.security.CurrentUser;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import com.quizapp.backend.model.User;
 
+// One timer for the whole class, tagged by method
+@Timed(value = "leaderboard.requests", histogram = true)
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class LeaderboardService {
 
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_WINDOW = 25;
+
     private final QuizAttemptRepository attemptRepository;
+    private final RedisLeaderboard redisLeaderboard;
+    private final LeaderboardRebuildJob rebuildJob;
 
-    @Cacheable("globalLeaderboard")
-    public List<LeaderboardEntryDTO> getGlobalLeaderboard() {
-        List<QuizAttempt> attempts = attemptRepository.findTopScores();
-        AtomicInteger rank = new AtomicInteger(1);
-        return attempts.stream()
-                .sorted((a1, a2) -> Integer.compare(a2.getScore(), a1.getScore())) // Ensure sorted by score descending
-                .map(attempt -> {
-                    User user = attempt.getUser();
-                    int totalQuizzesTaken = attemptRepository.countByUserId(user.getId()); // Count total quizzes taken by the user
-
-                    return LeaderboardEntryDTO.builder()
-                            .userId(user.getId())
-                            .username(user.getUsername())
-                            .firstName(user.getFirstName())
-                            .lastName(user.getLastName())
-                            .totalQuizzesTaken(totalQuizzesTaken)
-                            .score(attempt.getScore())
-                            .maxPossibleScore(attempt.getQuiz().getQuestions().size())
-                            .rank(rank.getAndIncrement())
-                            .build();
-                })
+    @Cacheable(value = CacheConfig.GLOBAL_LEADERBOARD, key = "#page + ':' + #size")
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntryDTO> getGlobalLeaderboard(int page, int size) {
+        validatePage(page, size);
+        if (redisLeaderboard.isReady()) {
+            try {
+                List<LeaderboardEntryDTO> entries = redisLeaderboard.getGlobalPage((long) page * size, size);
+                if (!entries.isEmpty() || !boardLost(null)) {
+                    return entries;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Redis leaderboard unavailable, falling back to the database: {}", e.getMessage());
+            }
+        }
+        return attemptRepository.findGlobalLeaderboardPage(size, (long) page * size).stream()
+                .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "quizLeaderboard", key = "#quizId")
-    public List<LeaderboardEntryDTO> getQuizLeaderboard(Long quizId) {
-        List<QuizAttempt> attempts = attemptRepository.findTopScoresByQuizId(quizId);
-        AtomicInteger rank = new AtomicInteger(1);
-        return attempts.stream()
-                .map(attempt -> {
-                    User user = attempt.getUser();
-                    int totalQuizzesTaken = attemptRepository.countByUserId(user.getId()); // Count total quizzes taken by the user
-
-                    return LeaderboardEntryDTO.builder()
-                            .userId(user.getId())
-                            .username(user.getUsername())
-                            .firstName(user.getFirstName()) // Include first name
-                            .lastName(user.getLastName()) // Include last name
-                            .totalQuizzesTaken(totalQuizzesTaken) // Include total quizzes taken
-                            .score(attempt.getScore())
-                            .maxPossibleScore(attempt.getQuiz().getQuestions().size())
-                            .rank(rank.getAndIncrement())
-                            .build();
-                })
+    @Cacheable(value = CacheConfig.QUIZ_LEADERBOARD, key = "#quizId + ':' + #page + ':' + #size")
+    @Transactional(readOnly = true)
+    public List<LeaderboardEntryDTO> getQuizLeaderboard(Long quizId, int page, int size) {
+        validatePage(page, size);
+        if (redisLeaderboard.isReady()) {
+            try {
+                List<LeaderboardEntryDTO> entries = redisLeaderboard.getQuizPage(quizId, (long) page * size, size);
+                if (!entries.isEmpty() || !boardLost(quizId)) {
+                    return entries;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Redis leaderboard unavailable, falling back to the database: {}", e.getMessage());
+            }
+        }
+        return attemptRepository.findQuizLeaderboardPage(quizId, size, (long) page * size).stream()
+                .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
+
+    @Transactional(readOnly = true)
+    public LeaderboardPositionDTO getGlobalPosition(int window) {
+        validateWindow(window);
+        Long userId = CurrentUser.id();
+        if (redisLeaderboard.isReady()) {
+            try {
+                LeaderboardPositionDTO position = redisLeaderboard.getGlobalPosition(userId, window);
+                if (!position.getEntries().isEmpty() || !boardLost(null)) {
+                    return position;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Redis leaderboard unavailable, falling back to the database: {}", e.getMessage());
+            }
+        }
+
+        // Same per-user aggregate as the Redis global board: the sum of best scores per quiz
+        Long score = attemptRepository.findGlobalScoreByUserId(userId);
+        long totalRanked = attemptRepository.countRankedUsers();
+        if (score == null) {
+            return unranked(userId, totalRanked);
+        }
+        long position = attemptRepository.countUsersAheadGlobally(score, userId);
+        long offset = Math.max(0, position - window);
+        int size = (int) (position - offset) + window + 1;
+        return ranked(userId, totalRanked, attemptRepository.findGlobalLeaderboardPage(size, offset));
+    }
+
+    @Transactional(readOnly = true)
+    public LeaderboardPositionDTO getQuizPosition(Long quizId, int window) {
+        validateWindow(window);
+        Long userId = CurrentUser.id();
+        if (redisLeaderboard.isReady()) {
+            try {
+                LeaderboardPositionDTO position = redisLeaderboard.getQuizPosition(quizId, userId, window);
+                if (!position.getEntries().isEmpty() || !boardLost(quizId)) {
+                    return position;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Redis leaderboard unavailable, falling back to the database: {}", e.getMessage());
+            }
+        }
+
+        Integer bestScore = attemptRepository.findBestCompletedScore(userId, quizId);
+        long totalRanked = attemptRepository.countRankedUsersByQuizId(quizId);
+        if (bestScore == null) {
+            return unranked(userId, totalRanked);
+        }
+        long position = attemptRepository.countUsersAheadOnQuiz(quizId, bestScore, userId);
+        long offset = Math.max(0, position - window);
+        int size = (int) (position - offset) + window + 1;
+        return ranked(userId, totalRanked, attemptRepository.findQuizLeaderboardPage(quizId, size, offset));
+    }
+
+    // An empty Redis board while the database has completions for it means Redis lost the boards (restarted
+    // without persistence, keys evicted or flushed). The request is served from the database and this node
+    // stays on the database until the rebuild has put the boards back.
+    private boolean boardLost(Long quizId) {
+        if (redisLeaderboard.boardSize(quizId) > 0) {
+            return false;
+        }
+        boolean completed = quizId != null
+                ? attemptRepository.existsByQuizIdAndStatus(quizId, AttemptStatus.COMPLETED)
+                : attemptRepository.existsByStatus(AttemptStatus.COMPLETED);
+        if (completed) {
+            rebuildJob.rebuildLostBoards();
+        }
+        return completed;
+    }
+
+    // Like the Redis path, the caller's rank and score are read off their own row in the window
+    private LeaderboardPositionDTO ranked(Long userId, long totalRanked, List<LeaderboardEntryProjection> rows) {
+        List<LeaderboardEntryDTO> entries = rows.stream().map(this::mapToDTO).collect(Collectors.toList());
+        LeaderboardEntryDTO self = entries.stream()
+                .filter(entry -> userId.equals(entry.getUserId()))
+                .findFirst()
+                .orElse(null);
+        return LeaderboardPositionDTO.builder()
+                .userId(userId)
+                .rank(self != null ? self.getRank() : null)
+                .score(self != null ? self.getScore() : null)
+                .totalRanked(totalRanked)
+                .entries(entries)
+                .build();
+    }
+
+    private LeaderboardPositionDTO unranked(Long userId, long totalRanked) {
+        return LeaderboardPositionDTO.builder()
+                .userId(userId)
+                .totalRanked(totalRanked)
+                .entries(List.of())
+                .build();
+    }
+
+    private void validateWindow(int window) {
+        if (window < 0 || window > MAX_WINDOW) {
+            throw new BadRequestException("Window must be between 0 and " + MAX_WINDOW);
+        }
+    }
+
+    private void validatePage(int page, int size) {
+        if (page < 0) {
+            throw new BadRequestException("Page index must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private LeaderboardEntryDTO mapToDTO(LeaderboardEntryProjection row) {
+        return LeaderboardEntryDTO.builder()
+                .userId(row.getUserId())
+                .username(row.getUsername())
+                .firstName(row.getFirstName())
+                .lastName(row.getLastName())
+                .totalQuizzesTaken(row.getTotalQuizzesTaken() != null ? row.getTotalQuizzesTaken() : 0)
+                .score(row.getScore())
+                .maxPossibleScore(row.getMaxPossibleScore())
+                .rank(row.getRank())
+                .build();
+    }
 }
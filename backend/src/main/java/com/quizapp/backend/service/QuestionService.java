@@ -6,6 +6,7 @@ import com.quizapp.backend.exception.ResourceNotFoundException;
 import com.quizapp.backend.model.Option;
 import com.quizapp.backend.model.Question;
 import com.quizapp.backend.model.Quiz;
+import com.quizapp.backend.model.enums.Difficulty;
 import com.quizapp.backend.repository.QuestionRepository;
 import com.quizapp.backend.repository.QuizRepository;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +23,7 @@ public class QuestionService {
 
     private final QuestionRepository questionRepository;
     private final QuizRepository quizRepository;
+    private final AnswerKeyCache answerKeyCache;
 
     @Transactional(readOnly = true)
     public List<QuestionDTO> getQuestionsByQuizId(Long quizId) {
@@ -41,8 +43,7 @@ public class QuestionService {
         question.setQuestionType(questionDTO.getQuestionType());
         question.setDifficulty(questionDTO.getDifficulty());
         question.setExplanation(questionDTO.getExplanation());
-        question.setAttempts(questionDTO.getAttempts() != null ? questionDTO.getAttempts() : 0); // Default to 0
-        question.setCorrectSelections(questionDTO.getCorrectSelections() != null ? questionDTO.getCorrectSelections() : 0); // Default to 0
+        // attempts and correctSelections are counted from graded answers (QuestionStatsCollector), not edited
 
         // Update options
         if (questionDTO.getOptions() != null) {
@@ -80,11 +81,15 @@ public class QuestionService {
         }
 
         // Save the updated question
-        return mapToDTO(questionRepository.save(question));
+        Question savedQuestion = questionRepository.save(question);
+        answerKeyCache.evict(savedQuestion.getQuiz().getId());
+        return mapToDTO(savedQuestion);
     }
 
     @Transactional
     public void deleteQuestion(Long questionId) {
+        questionRepository.findById(questionId)
+                .ifPresent(question -> answerKeyCache.evict(question.getQuiz().getId()));
         questionRepository.deleteById(questionId);
     }
 
@@ -95,6 +100,7 @@ public class QuestionService {
 
         Question question = mapToEntity(questionDTO, quiz);
         Question savedQuestion = questionRepository.save(question);
+        answerKeyCache.evict(quizId);
         return mapToDTO(savedQuestion);
     }
 
@@ -104,6 +110,8 @@ public class QuestionService {
                 .text(question.getText())
                 .questionType(question.getQuestionType())
                 .difficulty(question.getDifficulty())
+                .empiricalDifficulty(question.getEmpiricalDifficulty() != null
+                        ? question.getEmpiricalDifficulty() : Difficulty.UNASSIGNED)
                 .explanation(question.getExplanation())
                 .attempts(question.getAttempts())
                 .correctSelections(question.getCorrectSelections())
@@ -0,0 +1,157 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.dto.QuestionResultDTO;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Live per-question item analysis. Graded answers are counted in memory and periodically added to
+// questions.attempts / correct_selections in one batched UPDATE, so submitting never locks question rows.
+// Counters are cumulative and only the not-yet-written part is flushed, so a failed flush is retried whole.
+// A question is dropped from memory once everything counted for it is written (deleted questions included,
+// whose UPDATE just matches no row), so the map only holds questions answered since the last flush.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuestionStatsCollector implements MeterBinder {
+
+    private static final String FLUSH_SQL = "UPDATE questions SET attempts = attempts + ?, "
+            + "correct_selections = correct_selections + ? WHERE id = ?";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, Counts> counts = new ConcurrentHashMap<>();
+    private final LongAdder flushFailures = new LongAdder();
+
+    // Counts the answers once the surrounding transaction commits, so a rolled back submit leaves no trace
+    public void recordAfterCommit(List<QuestionResultDTO> results) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(results);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(results);
+            }
+        });
+    }
+
+    public void record(List<QuestionResultDTO> results) {
+        for (QuestionResultDTO result : results) {
+            // Counted inside compute() so it can't land on an entry flush() is removing at the same moment
+            counts.compute(result.getQuestionId(), (id, questionCounts) -> {
+                Counts updated = questionCounts != null ? questionCounts : new Counts();
+                // Attempt before correct; flush reads them in the opposite order, so it never sees more correct than attempts
+                updated.attempts.increment();
+                if (result.isCorrect()) {
+                    updated.correct.increment();
+                }
+                return updated;
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.question-stats.flush-interval:PT10S}")
+    public synchronized void flush() {
+        List<long[]> deltas = new ArrayList<>(); // questionId, attempts, correct
+        counts.forEach((questionId, questionCounts) -> {
+            long correct = questionCounts.correct.sum() - questionCounts.flushedCorrect;
+            long attempts = questionCounts.attempts.sum() - questionCounts.flushedAttempts;
+            if (attempts > 0 || correct > 0) {
+                deltas.add(new long[] { questionId, attempts, correct });
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        // Same row order on every node, so concurrent flushes can't deadlock each other
+        deltas.sort(Comparator.comparingLong(delta -> delta[0]));
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(FLUSH_SQL, deltas, BATCH_SIZE, (statement, delta) -> {
+                        statement.setLong(1, delta[1]);
+                        statement.setLong(2, delta[2]);
+                        statement.setLong(3, delta[0]);
+                    }));
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            log.warn("Flushing question stats for {} questions failed, retrying next time: {}",
+                    deltas.size(), e.getMessage());
+            return;
+        }
+
+        for (long[] delta : deltas) {
+            counts.computeIfPresent(delta[0], (questionId, questionCounts) -> {
+                questionCounts.flushedAttempts += delta[1];
+                questionCounts.flushedCorrect += delta[2];
+                return questionCounts.isFlushed() ? null : questionCounts;
+            });
+        }
+    }
+
+    // Answers counted but not yet written to the questions table
+    public long getPendingCount() {
+        long pending = 0;
+        for (Counts questionCounts : counts.values()) {
+            pending += questionCounts.attempts.sum() - questionCounts.flushedAttempts;
+        }
+        return pending;
+    }
+
+    // Questions with answers not yet written; bounded by what was answered since the last flush
+    public int getTrackedQuestionCount() {
+        return counts.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("question.stats.pending", this, QuestionStatsCollector::getPendingCount)
+                .description("Graded answers not yet added to the per-question counters in the database")
+                .register(registry);
+        Gauge.builder("question.stats.tracked", this, QuestionStatsCollector::getTrackedQuestionCount)
+                .description("Questions held in memory until their answers are written")
+                .register(registry);
+        FunctionCounter.builder("question.stats.flush.failures", flushFailures, LongAdder::sum)
+                .description("Question stats flushes that failed and were left for the next run")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private static final class Counts {
+        final LongAdder attempts = new LongAdder();
+        final LongAdder correct = new LongAdder();
+        // Written only by flush()
+        volatile long flushedAttempts;
+        volatile long flushedCorrect;
+
+        boolean isFlushed() {
+            return attempts.sum() == flushedAttempts && correct.sum() == flushedCorrect;
+        }
+    }
+}
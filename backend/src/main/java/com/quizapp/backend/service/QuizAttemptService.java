@@ -6,10 +6,11 @@ import com.quizapp.backend.exception.BadRequestException;
 import com.quizapp.backend.model.*;
 import com.quizapp.backend.model.enums.AttemptStatus;
 import com.quizapp.backend.repository.*;
+import com.quizapp.backend.security.CurrentUser;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,31 +29,36 @@ public class QuizAttemptService {
     private final QuizRepository quizRepository;
     private final UserRepository userRepository;
     private final UserAnswerRepository userAnswerRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerKeyCache answerKeyCache;
+    private final RedisLeaderboard redisLeaderboard;
+    private final UserStatsRepository userStatsRepository;
+    private final QuestionStatsCollector questionStatsCollector;
 
+    @Timed(value = "quiz.attempt.start", histogram = true)
     @Transactional
     public Map<String, Object> startNewAttempt(Long quizId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         Quiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz not found"));
 
         // Check for existing active attempts
-        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(user.getId(), quizId);
+        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(userId, quizId);
         if (!activeAttempts.isEmpty()) {
             throw new BadRequestException("An active attempt already exists for this quiz.");
         }
 
         // Create a new attempt
         QuizAttempt attempt = QuizAttempt.builder()
-                .user(user)
+                .user(userRepository.getReferenceById(userId))
                 .quiz(quiz)
                 .startedAt(LocalDateTime.now())
                 .status(AttemptStatus.IN_PROGRESS)
                 .build();
 
         QuizAttempt savedAttempt = attemptRepository.save(attempt);
+        userStatsRepository.recordAttemptStarted(userId, LocalDateTime.now());
 
         // Return both the attempt and quiz
         return Map.of(
@@ -63,15 +69,13 @@ public class QuizAttemptService {
 
     @Transactional(readOnly = true)
     public Map<String, Object> resumeAttempt(Long quizId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         Quiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz not found"));
 
         // Find active attempts
-        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(user.getId(), quizId);
+        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(userId, quizId);
         if (activeAttempts.isEmpty()) {
             return null; // No active attempt found
         }
@@ -85,12 +89,10 @@ public class QuizAttemptService {
 
     @Transactional(readOnly = true)
     public QuizAttemptDTO getActiveAttempt(Long quizId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         // Check for active attempts
-        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(user.getId(), quizId);
+        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(userId, quizId);
         if (!activeAttempts.isEmpty()) {
             return mapToDTO(activeAttempts.get(0)); // Return the first active attempt
         }
@@ -99,35 +101,35 @@ public class QuizAttemptService {
 
     @Transactional
     public QuizAttemptDTO endActiveAttemptAndStartNew(Long quizId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         Quiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz not found"));
 
         // Find active attempts for the user and quiz
-        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(user.getId(), quizId);
+        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(userId, quizId);
         if (!activeAttempts.isEmpty()) {
             // End the active attempt
-            QuizAttempt activeAttempt = activeAttempts.get(0);
-            activeAttempt.setStatus(AttemptStatus.ABANDONED);
-            activeAttempt.setCompletedAt(LocalDateTime.now());
-            attemptRepository.save(activeAttempt);
+            // Runs straight away, so the insert below can't hit the active-attempt unique key; 0 rows means a
+            // concurrent request already ended it
+            attemptRepository.endIfInProgress(activeAttempts.get(0).getId(), AttemptStatus.ABANDONED,
+                    LocalDateTime.now());
         }
 
         // Start a new attempt
         QuizAttempt newAttempt = QuizAttempt.builder()
-                .user(user)
+                .user(userRepository.getReferenceById(userId))
                 .quiz(quiz)
                 .startedAt(LocalDateTime.now())
                 .status(AttemptStatus.IN_PROGRESS)
                 .build();
 
         QuizAttempt savedAttempt = attemptRepository.save(newAttempt);
+        userStatsRepository.recordAttemptStarted(userId, LocalDateTime.now());
         return mapToDTO(savedAttempt);
     }
 
+    @Timed(value = "quiz.attempt.submit", histogram = true)
     @Transactional
     public QuizResultDTO submitAttempt(Long attemptId, SubmissionDTO submission) {
         QuizAttempt attempt = attemptRepository.findById(attemptId)
@@ -142,25 +144,29 @@ public class QuizAttemptService {
             throw new BadRequestException("Submission must contain answers.");
         }
 
-        // Process submission
+        // Claim the attempt before grading: of two concurrent submits only one gets the row, so user_stats,
+        // the leaderboards and the question counters see each attempt once
+        LocalDateTime completedAt = LocalDateTime.now();
+        if (attemptRepository.endIfInProgress(attemptId, AttemptStatus.COMPLETED, completedAt) == 0) {
+            throw new BadRequestException("Only in-progress attempts can be submitted.");
+        }
+
+        // Grade against the precompiled answer key instead of walking the question graph
+        AnswerKey answerKey = answerKeyCache.get(attempt.getQuiz().getId());
         int score = 0;
-        List<QuestionResultDTO> questionResults = new ArrayList<>();
-        List<UserAnswer> userAnswers = new ArrayList<>();
+        List<QuestionResultDTO> questionResults = new ArrayList<>(submission.getAnswers().size());
+        List<UserAnswer> userAnswers = new ArrayList<>(submission.getAnswers().size());
 
         for (AnswerSubmissionDTO answer : submission.getAnswers()) {
-            Question question = attempt.getQuiz().getQuestions().stream()
-                    .filter(q -> q.getId().equals(answer.getQuestionId()))
-                    .findFirst()
-                    .orElseThrow(() -> new BadRequestException("Invalid question ID: " + answer.getQuestionId()));
-
-            Set<Long> correctOptionIds = question.getOptions().stream()
-                    .filter(Option::isCorrect)
-                    .map(Option::getId)
-                    .collect(Collectors.toSet());
+            AnswerKey.Entry entry = answerKey.get(answer.getQuestionId());
+            if (entry == null) {
+                throw new BadRequestException("Invalid question ID: " + answer.getQuestionId());
+            }
 
-            Set<Long> selectedOptionIds = new HashSet<>(answer.getSelectedOptionIds());
+            long[] selected = AnswerKey.normalize(answer.getSelectedOptionIds());
+            List<Long> selectedOptionIds = Arrays.stream(selected).boxed().collect(Collectors.toList());
 
-            boolean isCorrect = correctOptionIds.equals(selectedOptionIds);
+            boolean isCorrect = entry.matches(selected);
             if (isCorrect) {
                 score++;
             }
@@ -168,19 +174,19 @@ public class QuizAttemptService {
             // Save UserAnswer entity
             UserAnswer userAnswer = UserAnswer.builder()
                     .quizAttempt(attempt)
-                    .question(question)
-                    .selectedOptionIds(new ArrayList<>(selectedOptionIds))
+                    .question(questionRepository.getReferenceById(answer.getQuestionId()))
+                    .selectedOptionIds(selectedOptionIds)
                     .isCorrect(isCorrect)
                     .build();
             userAnswers.add(userAnswer);
 
             questionResults.add(QuestionResultDTO.builder()
-                    .questionId(question.getId())
-                    .questionText(question.getText())
+                    .questionId(answer.getQuestionId())
+                    .questionText(entry.getQuestionText())
                     .correct(isCorrect)
                     .pointsAwarded(isCorrect ? 1 : 0)
-                    .correctOptionIds(new ArrayList<>(correctOptionIds))
-                    .selectedOptionIds(new ArrayList<>(selectedOptionIds))
+                    .correctOptionIds(entry.getCorrectOptionIds())
+                    .selectedOptionIds(selectedOptionIds)
                     .build());
         }
 
@@ -190,21 +196,30 @@ public class QuizAttemptService {
         attempt.getUserAnswers().addAll(userAnswers);
 
         // Update attempt details
-        long timeTaken = Duration.between(attempt.getStartedAt(), LocalDateTime.now()).getSeconds();
+        int maxPossibleScore = answerKey.getQuestionCount();
+        long timeTaken = Duration.between(attempt.getStartedAt(), completedAt).getSeconds();
         attempt.setTimeTakenSeconds((int) timeTaken);
         attempt.setScore(score);
-        attempt.setCompletedAt(LocalDateTime.now());
+        attempt.setMaxPossibleScore(maxPossibleScore);
+        attempt.setCompletedAt(completedAt);
         attempt.setStatus(AttemptStatus.COMPLETED);
         attemptRepository.save(attempt);
 
-        double percentage = Math.round(((double) score / attempt.getQuiz().getQuestions().size() * 100) * 100.0) / 100.0;
+        questionStatsCollector.recordAfterCommit(questionResults);
+
+        User user = attempt.getUser();
+        userStatsRepository.recordAttemptCompleted(user.getId(), score, attempt.getCompletedAt());
+        redisLeaderboard.recordCompletion(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(),
+                attempt.getQuiz().getId(), score, maxPossibleScore);
+
+        double percentage = Math.round(((double) score / maxPossibleScore * 100) * 100.0) / 100.0;
 
         return QuizResultDTO.builder()
                 .attemptId(attemptId)
                 .quizId(attempt.getQuiz().getId())
                 .quizTitle(attempt.getQuiz().getTitle())
                 .score(score)
-                .maxPossibleScore(attempt.getQuiz().getQuestions().size())
+                .maxPossibleScore(maxPossibleScore)
                 .percentage(percentage)
                 .timeTakenSeconds((int) timeTaken)
                 .completedAt(attempt.getCompletedAt())
@@ -222,56 +237,54 @@ public class QuizAttemptService {
         }
 
         // Update the attempt status and log the reason
-        attempt.setStatus(AttemptStatus.ABANDONED);
-        attempt.setCompletedAt(LocalDateTime.now());
+        LocalDateTime abandonedAt = LocalDateTime.now();
+        if (attemptRepository.endIfInProgress(attemptId, AttemptStatus.ABANDONED, abandonedAt) == 0) {
+            throw new BadRequestException("Only in-progress attempts can be abandoned.");
+        }
         // Optionally, store the reason in a log or database
         System.out.println("Attempt " + attemptId + " abandoned for reason: " + reason);
 
-        attemptRepository.save(attempt);
+        userStatsRepository.recordActivity(attempt.getUser().getId(), abandonedAt);
     }
 
     @Transactional
     public Boolean endActiveAttempt(Long quizId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         Quiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz not found"));
 
         // Find active attempts for the user and quiz
-        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(user.getId(), quizId);
+        List<QuizAttempt> activeAttempts = attemptRepository.findActiveAttemptsByUserAndQuiz(userId, quizId);
         if (activeAttempts.isEmpty()) {
             throw new BadRequestException("No active attempt exists for this quiz.");
         }
 
         // End the active attempt
-        QuizAttempt activeAttempt = activeAttempts.get(0);
-        activeAttempt.setStatus(AttemptStatus.ABANDONED);
-        activeAttempt.setCompletedAt(LocalDateTime.now());
-        attemptRepository.save(activeAttempt);
+        LocalDateTime endedAt = LocalDateTime.now();
+        if (attemptRepository.endIfInProgress(activeAttempts.get(0).getId(), AttemptStatus.ABANDONED, endedAt) == 0) {
+            throw new BadRequestException("No active attempt exists for this quiz.");
+        }
+        userStatsRepository.recordActivity(userId, endedAt);
         return true; // Successfully ended the active attempt
     }
 
     @Transactional(readOnly = true)
     public List<QuizAttemptDTO> getUserAttempts() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return attemptRepository.findByUsername(username).stream()
+        return attemptRepository.findByUserId(CurrentUser.id()).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public DetailedQuizAttemptDTO getUserAttemptById(Long attemptId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         QuizAttempt attempt = attemptRepository.findById(attemptId)
                 .orElseThrow(() -> new ResourceNotFoundException("Attempt not found"));
 
         // Ensure the attempt belongs to the logged-in user or the user is an admin
-        if (!attempt.getUser().getId().equals(user.getId()) && user.getRole() != Role.ADMIN) {
+        if (!attempt.getUser().getId().equals(userId) && CurrentUser.principal().getRole() != Role.ADMIN) {
             throw new BadRequestException("You are not authorized to view this attempt.");
         }
 
@@ -282,39 +295,37 @@ public class QuizAttemptService {
     //delete attempts
     @Transactional
     public void deleteQuizAttempt(Long attemptId) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         QuizAttempt attempt = attemptRepository.findById(attemptId)
                 .orElseThrow(() -> new ResourceNotFoundException("Attempt not found"));
 
         // Ensure the attempt belongs to the logged-in user
-        if (!attempt.getUser().getId().equals(user.getId())) {
+        if (!attempt.getUser().getId().equals(userId)) {
             throw new BadRequestException("You are not authorized to delete this attempt.");
         }
 
         attemptRepository.delete(attempt);
+        refreshUserStats(userId, List.of(attempt));
+        refreshLeaderboard(userId, List.of(attempt));
     }
 
     @Transactional
     public void deleteAllQuizAttempts() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
-        List<QuizAttempt> attempts = attemptRepository.findByUserId(user.getId());
+        List<QuizAttempt> attempts = attemptRepository.findByUserId(userId);
         attemptRepository.deleteAll(attempts);
+        refreshUserStats(userId, attempts);
+        refreshLeaderboard(userId, attempts);
     }
 
     @Transactional
     public void deleteMultipleQuizAttempts(List<Long> attemptIds) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        Long userId = CurrentUser.id();
 
         List<QuizAttempt> attempts = attemptRepository.findAllById(attemptIds).stream()
-                .filter(attempt -> attempt.getUser().getId().equals(user.getId()))
+                .filter(attempt -> attempt.getUser().getId().equals(userId))
                 .collect(Collectors.toList());
 
         if (attempts.isEmpty()) {
@@ -322,9 +333,45 @@ public class QuizAttemptService {
         }
 
         attemptRepository.deleteAll(attempts);
+        refreshUserStats(userId, attempts);
+        refreshLeaderboard(userId, attempts);
+    }
+
+    // Takes the deleted attempts out of the user's aggregates
+    private void refreshUserStats(Long userId, List<QuizAttempt> deletedAttempts) {
+        if (deletedAttempts.isEmpty()) {
+            return;
+        }
+        int completed = 0;
+        long scoreSum = 0;
+        for (QuizAttempt attempt : deletedAttempts) {
+            if (attempt.getStatus() == AttemptStatus.COMPLETED) {
+                completed++;
+                scoreSum += attempt.getScore();
+            }
+        }
+        userStatsRepository.recordAttemptsDeleted(userId, deletedAttempts.size(), completed, scoreSum);
+    }
+
+    // Recomputes the user's best scores for quizzes that lost a completed attempt
+    private void refreshLeaderboard(Long userId, List<QuizAttempt> deletedAttempts) {
+        Set<Long> quizIds = deletedAttempts.stream()
+                .filter(attempt -> attempt.getStatus() == AttemptStatus.COMPLETED)
+                .map(attempt -> attempt.getQuiz().getId())
+                .collect(Collectors.toSet());
+        if (quizIds.isEmpty()) {
+            return;
+        }
+
+        long completedTotal = attemptRepository.countCompletedByUserId(userId);
+        for (Long quizId : quizIds) {
+            Integer bestScore = attemptRepository.findBestCompletedScore(userId, quizId);
+            redisLeaderboard.setBestScore(userId, quizId, bestScore,
+                    (int) questionRepository.countByQuizId(quizId), completedTotal);
+        }
     }
 
-    private QuizAttemptDTO mapToDTO(QuizAttempt attempt) {
+    QuizAttemptDTO mapToDTO(QuizAttempt attempt) {
         return QuizAttemptDTO.builder()
                 .id(attempt.getId())
                 .quizId(attempt.getQuiz().getId())
@@ -337,7 +384,7 @@ public class QuizAttemptService {
                 .build();
     }
 
-    private DetailedQuizAttemptDTO mapToDetailedDTO(QuizAttempt attempt) {
+    DetailedQuizAttemptDTO mapToDetailedDTO(QuizAttempt attempt) {
         List<QuestionResultDTO> questionResults = attempt.getUserAnswers().stream()
                 .map(userAnswer -> {
                     Question question = userAnswer.getQuestion();
@@ -360,7 +407,7 @@ public class QuizAttemptService {
                             .correct(userAnswer.isCorrect())
                             .pointsAwarded(userAnswer.isCorrect() ? 1 : 0)
                             .correctOptionIds(new ArrayList<>(correctOptionIds))
-                            .selectedOptionIds(userAnswer.getSelectedOptionIds())
+                            .selectedOptionIds(new ArrayList<>(userAnswer.getSelectedOptionIds()))
                             .options(options)
                             .explanation(question.getExplanation())
                             .build();
@@ -1,27 +1,36 @@
 package com.quizapp.backend.service;
 
+import com.quizapp.backend.config.CacheConfig;
+import com.quizapp.backend.dto.CategoryCountDTO;
+import com.quizapp.backend.dto.QuizCatalogPageDTO;
 import com.quizapp.backend.dto.QuizDTO;
+import com.quizapp.backend.dto.QuizSummaryDTO;
 import com.quizapp.backend.dto.QuizResultDTO;
 import com.quizapp.backend.dto.QuestionDTO;
 import com.quizapp.backend.dto.QuestionResultDTO;
 import com.quizapp.backend.dto.OptionDTO;
+import com.quizapp.backend.exception.BadRequestException;
 import com.quizapp.backend.exception.ResourceNotFoundException;
 import com.quizapp.backend.model.Question;
 import com.quizapp.backend.model.Option;
 import com.quizapp.backend.model.Quiz;
 import com.quizapp.backend.model.QuizAttempt;
-import com.quizapp.backend.model.User;
 import com.quizapp.backend.model.enums.Difficulty;
 import com.quizapp.backend.repository.QuizAttemptRepository;
 import com.quizapp.backend.repository.QuizRepository;
 import com.quizapp.backend.repository.UserRepository;
+import com.quizapp.backend.repository.UserStatsRepository;
+import com.quizapp.backend.security.CurrentUser;
 
 import lombok.*;
 
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,18 +38,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class QuizService {
 
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+
     private final QuizRepository quizRepository;
     private final UserRepository userRepository;
     private final QuizAttemptRepository quizAttemptRepository;
+    private final AnswerKeyCache answerKeyCache;
+    private final RedisLeaderboard redisLeaderboard;
+    private final UserStatsRepository userStatsRepository;
 
+    @CacheEvict(cacheNames = CacheConfig.QUIZ_CATEGORIES, allEntries = true)
     @Transactional
     public QuizDTO createQuiz(QuizDTO quizDTO) {
         Quiz quiz = new Quiz();
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        quiz.setCreatedBy(user);
+        quiz.setCreatedBy(userRepository.getReferenceById(CurrentUser.id()));
         quiz.setTitle(quizDTO.getTitle());
         quiz.setDescription(quizDTO.getDescription());
         quiz.setTimeLimitMinutes(quizDTO.getTimeLimitMinutes());
@@ -91,6 +102,25 @@ public class QuizService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public QuizCatalogPageDTO getQuizCatalog(String category, Difficulty difficulty, Boolean published,
+            Long cursor, int size) {
+        if (size < 1 || size > MAX_CATALOG_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_CATALOG_PAGE_SIZE);
+        }
+
+        // Fetch one extra row to know whether another page follows
+        List<QuizSummaryDTO> rows = quizRepository.findCatalogPage(category, difficulty, published, cursor,
+                PageRequest.of(0, size + 1));
+        boolean hasMore = rows.size() > size;
+        List<QuizSummaryDTO> items = hasMore ? rows.subList(0, size) : rows;
+
+        return QuizCatalogPageDTO.builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public QuizDTO getQuizById(Long id) {
         Quiz quiz = quizRepository.findById(id)
@@ -98,6 +128,7 @@ public class QuizService {
         return mapToDTO(quiz);
     }
 
+    @Transactional(readOnly = true)
     public List<QuizResultDTO> getQuizHistoryByQuizId(Long quizId) {
         List<QuizAttempt> attempts = quizAttemptRepository.findByQuizId(quizId);
 
@@ -115,7 +146,7 @@ public class QuizService {
                         .map(answer -> QuestionResultDTO.builder()
                         .questionId(answer.getQuestion().getId())
                         .questionText(answer.getQuestion().getText())
-                        .selectedOptionIds(answer.getSelectedOptionIds())
+                        .selectedOptionIds(new ArrayList<>(answer.getSelectedOptionIds()))
                         .correctOptionIds(answer.getQuestion().getOptions().stream()
                                 .filter(Option::isCorrect)
                                 .map(Option::getId)
@@ -127,6 +158,7 @@ public class QuizService {
                 .collect(Collectors.toList());
     }
 
+    @CacheEvict(cacheNames = CacheConfig.QUIZ_CATEGORIES, allEntries = true)
     @Transactional
     public QuizDTO updateQuiz(Long id, QuizDTO quizDTO) {
         Quiz quiz = quizRepository.findById(id)
@@ -144,25 +176,39 @@ public class QuizService {
             quiz.setDifficulty(Difficulty.UNASSIGNED);
         }
 
-        return mapToDTO(quizRepository.save(quiz));
+        Quiz savedQuiz = quizRepository.save(quiz);
+        answerKeyCache.evict(id);
+        return mapToDTO(savedQuiz);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.QUIZ_CATEGORIES, allEntries = true)
     @Transactional
     public void deleteQuiz(Long id) {
         Quiz quiz = quizRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Quiz not found with id: " + id));
+        // The quiz's attempts go with it, so everyone who took it needs their aggregates recomputed
+        List<Long> affectedUserIds = quizAttemptRepository.findUserIdsByQuizId(id);
         quizRepository.delete(quiz);
+        if (!affectedUserIds.isEmpty()) {
+            userStatsRepository.recompute(affectedUserIds);
+        }
+        answerKeyCache.evict(id);
+        redisLeaderboard.removeQuiz(id);
     }
 
+    @Cacheable(value = CacheConfig.QUIZ_CATEGORIES, key = "'names'")
     @Transactional(readOnly = true)
     public List<String> getAllCategories() {
-        return quizRepository.findAll().stream()
-                .map(Quiz::getCategory)
-                .distinct() // Ensure unique categories
-                .collect(Collectors.toList());
+        return quizRepository.findDistinctCategories();
+    }
+
+    @Cacheable(value = CacheConfig.QUIZ_CATEGORIES, key = "'counts'")
+    @Transactional(readOnly = true)
+    public List<CategoryCountDTO> getCategoryCounts() {
+        return quizRepository.countQuizzesByCategory();
     }
 
-    private QuizDTO mapToDTO(Quiz quiz) {
+    QuizDTO mapToDTO(Quiz quiz) {
         return QuizDTO.builder()
                 .id(quiz.getId())
                 .title(quiz.getTitle())
@@ -171,6 +217,8 @@ public class QuizService {
                 .isPublished(quiz.isPublished())
                 .createdById(quiz.getCreatedBy() != null ? quiz.getCreatedBy().getId() : null)
                 .difficulty(quiz.getDifficulty()) // Include difficulty
+                .empiricalDifficulty(quiz.getEmpiricalDifficulty() != null
+                        ? quiz.getEmpiricalDifficulty() : Difficulty.UNASSIGNED)
                 .category(quiz.getCategory()) // Map category ID
                 .questions(quiz.getQuestions() != null ? quiz.getQuestions().stream()
                         .map(this::mapToQuestionDTO)
@@ -187,6 +235,8 @@ public class QuizService {
                 .text(question.getText())
                 .questionType(question.getQuestionType())
                 .difficulty(question.getDifficulty())
+                .empiricalDifficulty(question.getEmpiricalDifficulty() != null
+                        ? question.getEmpiricalDifficulty() : Difficulty.UNASSIGNED)
                 .explanation(question.getExplanation())
                 .attempts(question.getAttempts())
                 .correctSelections(question.getCorrectSelections())
@@ -205,7 +255,7 @@ public class QuizService {
                 .build();
     }
 
-    private Difficulty calculateQuizDifficulty(List<Question> questions) {
+    Difficulty calculateQuizDifficulty(List<Question> questions) {
         if (questions.isEmpty()) {
             return Difficulty.UNASSIGNED;
         }
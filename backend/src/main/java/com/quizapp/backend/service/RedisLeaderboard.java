@@ -0,0 +1,418 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.config.CacheConfig;
+import com.quizapp.backend.config.TwoLevelCache;
+import com.quizapp.backend.dto.LeaderboardEntryDTO;
+import com.quizapp.backend.dto.LeaderboardPositionDTO;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Real-time rankings kept in Redis sorted sets.
+// Per-quiz boards hold each user's best score; the global board holds the sum of those best scores.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RedisLeaderboard {
+
+    static final String GLOBAL_KEY = "leaderboard:global";
+    static final String QUIZ_KEY_PREFIX = "leaderboard:quiz:";
+    static final String USER_KEY_PREFIX = "leaderboard:user:";
+    static final String QUIZ_MAX_KEY = "leaderboard:quiz-max";
+    static final String QUIZZES_KEY = "leaderboard:quizzes";
+    static final String REBUILD_LOCK_KEY = "leaderboard:rebuild:lock";
+
+    // KEYS: quiz board, global board, user hash, quiz max hash, quiz id set
+    // ARGV: userId, score, quizId, quizMax, username, firstName, lastName
+    private static final DefaultRedisScript<Long> RECORD_COMPLETION = new DefaultRedisScript<>(
+            "local old = redis.call('ZSCORE', KEYS[1], ARGV[1]) "
+            + "local score = tonumber(ARGV[2]) "
+            + "if not old then "
+            + "  redis.call('ZADD', KEYS[1], score, ARGV[1]) "
+            + "  redis.call('ZINCRBY', KEYS[2], score, ARGV[1]) "
+            + "  redis.call('HINCRBY', KEYS[3], 'maxTotal', ARGV[4]) "
+            + "elseif score > tonumber(old) then "
+            + "  redis.call('ZADD', KEYS[1], score, ARGV[1]) "
+            + "  redis.call('ZINCRBY', KEYS[2], score - tonumber(old), ARGV[1]) "
+            + "end "
+            + "redis.call('HINCRBY', KEYS[3], 'completed', 1) "
+            + "redis.call('HSET', KEYS[3], 'username', ARGV[5], 'firstName', ARGV[6], 'lastName', ARGV[7]) "
+            + "redis.call('HSET', KEYS[4], ARGV[3], ARGV[4]) "
+            + "redis.call('SADD', KEYS[5], ARGV[3]) "
+            + "return 1",
+            Long.class);
+
+    // KEYS: quiz board, global board, user hash
+    // ARGV: userId, best score ('' when the user has no completed attempt left), quizMax, completed total
+    private static final DefaultRedisScript<Long> SET_BEST_SCORE = new DefaultRedisScript<>(
+            "local old = redis.call('ZSCORE', KEYS[1], ARGV[1]) "
+            + "if ARGV[2] == '' then "
+            + "  if old then "
+            + "    redis.call('ZREM', KEYS[1], ARGV[1]) "
+            + "    redis.call('ZINCRBY', KEYS[2], -tonumber(old), ARGV[1]) "
+            + "    redis.call('HINCRBY', KEYS[3], 'maxTotal', -tonumber(ARGV[3])) "
+            + "  end "
+            + "else "
+            + "  local best = tonumber(ARGV[2]) "
+            + "  redis.call('ZADD', KEYS[1], best, ARGV[1]) "
+            + "  if old then "
+            + "    redis.call('ZINCRBY', KEYS[2], best - tonumber(old), ARGV[1]) "
+            + "  else "
+            + "    redis.call('ZINCRBY', KEYS[2], best, ARGV[1]) "
+            + "    redis.call('HINCRBY', KEYS[3], 'maxTotal', ARGV[3]) "
+            + "  end "
+            + "end "
+            + "if tonumber(ARGV[4]) == 0 then "
+            + "  redis.call('ZREM', KEYS[2], ARGV[1]) "
+            + "  redis.call('DEL', KEYS[3]) "
+            + "else "
+            + "  redis.call('HSET', KEYS[3], 'completed', ARGV[4]) "
+            + "end "
+            + "return 1",
+            Long.class);
+
+    // KEYS: quiz board, global board, quiz max hash, quiz id set
+    // ARGV: quizId, user hash prefix
+    private static final DefaultRedisScript<Long> REMOVE_QUIZ = new DefaultRedisScript<>(
+            "local max = tonumber(redis.call('HGET', KEYS[3], ARGV[1]) or '0') "
+            + "local members = redis.call('ZRANGE', KEYS[1], 0, -1, 'WITHSCORES') "
+            + "for i = 1, #members, 2 do "
+            + "  redis.call('ZINCRBY', KEYS[2], -tonumber(members[i + 1]), members[i]) "
+            + "  redis.call('HINCRBY', ARGV[2] .. members[i], 'maxTotal', -max) "
+            + "end "
+            + "redis.call('DEL', KEYS[1]) "
+            + "redis.call('HDEL', KEYS[3], ARGV[1]) "
+            + "redis.call('SREM', KEYS[4], ARGV[1]) "
+            + "return #members / 2",
+            Long.class);
+
+    // KEYS: global board, user hash, quiz id set
+    // ARGV: userId, quiz board prefix
+    private static final DefaultRedisScript<Long> REMOVE_USER = new DefaultRedisScript<>(
+            "local quizzes = redis.call('SMEMBERS', KEYS[3]) "
+            + "for _, quizId in ipairs(quizzes) do "
+            + "  redis.call('ZREM', ARGV[2] .. quizId, ARGV[1]) "
+            + "end "
+            + "redis.call('ZREM', KEYS[1], ARGV[1]) "
+            + "redis.call('DEL', KEYS[2]) "
+            + "return 1",
+            Long.class);
+
+    // KEYS: global board, user hash, quiz max hash, quiz id set
+    // ARGV: userId, completed total, max total, username, firstName, lastName, quiz board prefix,
+    //       then quizId, best score, quiz max for every quiz the user has completed
+    private static final DefaultRedisScript<Long> SYNC_USER = new DefaultRedisScript<>(
+            "local total = 0 "
+            + "for i = 8, #ARGV, 3 do "
+            + "  redis.call('ZADD', ARGV[7] .. ARGV[i], ARGV[i + 1], ARGV[1]) "
+            + "  redis.call('HSET', KEYS[3], ARGV[i], ARGV[i + 2]) "
+            + "  redis.call('SADD', KEYS[4], ARGV[i]) "
+            + "  total = total + tonumber(ARGV[i + 1]) "
+            + "end "
+            + "redis.call('ZADD', KEYS[1], total, ARGV[1]) "
+            + "redis.call('HSET', KEYS[2], 'username', ARGV[4], 'firstName', ARGV[5], 'lastName', ARGV[6], "
+            + "  'completed', ARGV[2], 'maxTotal', ARGV[3]) "
+            + "return 1",
+            Long.class);
+
+    private static final long READY_CHECK_INTERVAL_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheManager cacheManager;
+
+    private volatile boolean ready;
+    // Set by every board change; the global page cache is cleared at most once per eviction interval
+    private final AtomicBoolean globalPagesStale = new AtomicBoolean();
+    private volatile long nextReadyCheck = System.nanoTime();
+
+    // Rankings are only served from Redis once the boards are known to be populated. A node that didn't build
+    // them itself (another node held the rebuild lock) starts serving once they appear and no rebuild is running.
+    public boolean isReady() {
+        if (!ready && System.nanoTime() - nextReadyCheck >= 0) {
+            nextReadyCheck = System.nanoTime() + READY_CHECK_INTERVAL_NANOS;
+            try {
+                if (boardsExist() && !Boolean.TRUE.equals(redisTemplate.hasKey(REBUILD_LOCK_KEY))) {
+                    ready = true;
+                }
+            } catch (DataAccessException e) {
+                log.debug("Redis leaderboard not reachable yet: {}", e.getMessage());
+            }
+        }
+        return ready;
+    }
+
+    void markReady() {
+        this.ready = true;
+    }
+
+    // Returns false when the boards were already marked lost, so a loss seen by many reads schedules one rebuild.
+    // The next readiness check is pushed back to give the rebuild time to take its lock.
+    synchronized boolean markLost() {
+        if (!ready) {
+            return false;
+        }
+        ready = false;
+        nextReadyCheck = System.nanoTime() + READY_CHECK_INTERVAL_NANOS;
+        return true;
+    }
+
+    // Drops every cached page once the boards have been replaced
+    public void evictCaches() {
+        targetCache(CacheConfig.QUIZ_LEADERBOARD).clear();
+        globalPagesStale.set(false);
+        targetCache(CacheConfig.GLOBAL_LEADERBOARD).clear();
+    }
+
+    // The global board moves with every completion, so during busy periods clearing it per completion would
+    // keep its cache empty on every node; its pages are instead allowed to lag by up to the interval
+    @Scheduled(fixedDelayString = "${app.cache.global-leaderboard.eviction-interval:PT5S}")
+    public void evictStaleGlobalPages() {
+        if (globalPagesStale.getAndSet(false)) {
+            targetCache(CacheConfig.GLOBAL_LEADERBOARD).clear();
+        }
+    }
+
+    public boolean boardsExist() {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(GLOBAL_KEY));
+    }
+
+    // Number of users on the global board, or on the quiz's board when quizId is set
+    public long boardSize(Long quizId) {
+        Long size = redisTemplate.opsForZSet().zCard(quizId != null ? quizKey(quizId) : GLOBAL_KEY);
+        return size != null ? size : 0;
+    }
+
+    public void recordCompletion(Long userId, String username, String firstName, String lastName,
+            Long quizId, int score, int maxPossibleScore) {
+        afterCommit(quizId, () -> redisTemplate.execute(RECORD_COMPLETION,
+                List.of(quizKey(quizId), GLOBAL_KEY, userKey(userId), QUIZ_MAX_KEY, QUIZZES_KEY),
+                userId.toString(), Integer.toString(score), quizId.toString(), Integer.toString(maxPossibleScore),
+                username, nullToEmpty(firstName), nullToEmpty(lastName)));
+    }
+
+    // bestScore is null when the user no longer has a completed attempt on the quiz
+    public void setBestScore(Long userId, Long quizId, Integer bestScore, int maxPossibleScore, long completedTotal) {
+        afterCommit(quizId, () -> redisTemplate.execute(SET_BEST_SCORE,
+                List.of(quizKey(quizId), GLOBAL_KEY, userKey(userId)),
+                userId.toString(), bestScore != null ? bestScore.toString() : "",
+                Integer.toString(maxPossibleScore), Long.toString(completedTotal)));
+    }
+
+    public void removeQuiz(Long quizId) {
+        afterCommit(quizId, () -> redisTemplate.execute(REMOVE_QUIZ,
+                List.of(quizKey(quizId), GLOBAL_KEY, QUIZ_MAX_KEY, QUIZZES_KEY),
+                quizId.toString(), USER_KEY_PREFIX));
+    }
+
+    // The user may be on any quiz board, so all quiz pages are dropped
+    public void removeUser(Long userId) {
+        afterCommit(null, () -> redisTemplate.execute(REMOVE_USER,
+                List.of(GLOBAL_KEY, userKey(userId), QUIZZES_KEY),
+                userId.toString(), QUIZ_KEY_PREFIX));
+    }
+
+    // Overwrites the user's entries with absolute values read from MySQL, so applying it twice is harmless
+    public void resyncUser(Long userId, String username, String firstName, String lastName, long completedTotal,
+            Map<Long, Integer> bestScores, Map<Long, Integer> quizMax) {
+        List<String> args = new ArrayList<>();
+        long maxTotal = 0;
+        for (Map.Entry<Long, Integer> best : bestScores.entrySet()) {
+            int max = quizMax.getOrDefault(best.getKey(), 0);
+            maxTotal += max;
+            args.add(best.getKey().toString());
+            args.add(best.getValue().toString());
+            args.add(Integer.toString(max));
+        }
+        args.addAll(0, List.of(userId.toString(), Long.toString(completedTotal), Long.toString(maxTotal),
+                username, nullToEmpty(firstName), nullToEmpty(lastName), QUIZ_KEY_PREFIX));
+        redisTemplate.execute(SYNC_USER, List.of(GLOBAL_KEY, userKey(userId), QUIZ_MAX_KEY, QUIZZES_KEY),
+                args.toArray());
+    }
+
+    public List<LeaderboardEntryDTO> getGlobalPage(long offset, int size) {
+        return readPage(GLOBAL_KEY, null, offset, size);
+    }
+
+    public List<LeaderboardEntryDTO> getQuizPage(Long quizId, long offset, int size) {
+        return readPage(quizKey(quizId), quizId, offset, size);
+    }
+
+    public LeaderboardPositionDTO getGlobalPosition(Long userId, int window) {
+        return readPosition(GLOBAL_KEY, null, userId, window);
+    }
+
+    public LeaderboardPositionDTO getQuizPosition(Long quizId, Long userId, int window) {
+        return readPosition(quizKey(quizId), quizId, userId, window);
+    }
+
+    // ZREVRANK locates the caller in O(log N); the window around them is then read like any other page
+    private LeaderboardPositionDTO readPosition(String boardKey, Long quizId, Long userId, int window) {
+        Long position = redisTemplate.opsForZSet().reverseRank(boardKey, userId.toString());
+        Long totalRanked = redisTemplate.opsForZSet().zCard(boardKey);
+        if (position == null) {
+            return LeaderboardPositionDTO.builder()
+                    .userId(userId)
+                    .totalRanked(totalRanked)
+                    .entries(List.of())
+                    .build();
+        }
+
+        long offset = Math.max(0, position - window);
+        int size = (int) (position - offset) + window + 1;
+        List<LeaderboardEntryDTO> entries = readPage(boardKey, quizId, offset, size);
+        LeaderboardEntryDTO self = entries.stream()
+                .filter(entry -> userId.equals(entry.getUserId()))
+                .findFirst()
+                .orElse(null);
+
+        return LeaderboardPositionDTO.builder()
+                .userId(userId)
+                .rank(self != null ? self.getRank() : null)
+                .score(self != null ? self.getScore() : null)
+                .totalRanked(totalRanked)
+                .entries(entries)
+                .build();
+    }
+
+    private List<LeaderboardEntryDTO> readPage(String boardKey, Long quizId, long offset, int size) {
+        Set<TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                .reverseRangeWithScores(boardKey, offset, offset + size - 1L);
+        if (tuples == null || tuples.isEmpty()) {
+            return List.of();
+        }
+
+        List<TypedTuple<String>> page = new ArrayList<>(tuples);
+        List<String> userIds = page.stream().map(TypedTuple::getValue).toList();
+        List<Object> details = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String userId : userIds) {
+                stringConnection.hGetAll(USER_KEY_PREFIX + userId);
+            }
+            if (quizId != null) {
+                stringConnection.hGet(QUIZ_MAX_KEY, quizId.toString());
+            }
+            return null;
+        });
+
+        // Competition ranking: ties share a rank, so the first rank on the page comes from a strict count
+        int previousScore = page.get(0).getScore().intValue();
+        Long higher = redisTemplate.opsForZSet().count(boardKey, previousScore + 0.5, Double.POSITIVE_INFINITY);
+        int rank = (int) (higher != null ? higher : offset) + 1;
+        Integer quizMax = quizId != null ? parseInt((String) details.get(userIds.size())) : null;
+
+        List<LeaderboardEntryDTO> entries = new ArrayList<>(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            int score = page.get(i).getScore().intValue();
+            if (i > 0 && score != previousScore) {
+                rank = (int) offset + i + 1;
+            }
+            previousScore = score;
+
+            @SuppressWarnings("unchecked")
+            Map<String, String> user = (Map<String, String>) details.get(i);
+            entries.add(mapToDTO(Long.valueOf(userIds.get(i)), user, score,
+                    quizId != null ? quizMax : parseInt(user.get("maxTotal")), rank));
+        }
+        return entries;
+    }
+
+    private LeaderboardEntryDTO mapToDTO(Long userId, Map<String, String> user, int score, Integer maxPossibleScore, int rank) {
+        Integer completed = parseInt(user.get("completed"));
+        return LeaderboardEntryDTO.builder()
+                .userId(userId)
+                .username(user.get("username"))
+                .firstName(emptyToNull(user.get("firstName")))
+                .lastName(emptyToNull(user.get("lastName")))
+                .totalQuizzesTaken(completed != null ? completed : 0)
+                .score(score)
+                .maxPossibleScore(maxPossibleScore)
+                .rank(rank)
+                .build();
+    }
+
+    static String quizKey(Long quizId) {
+        return QUIZ_KEY_PREFIX + quizId;
+    }
+
+    static String userKey(Long userId) {
+        return USER_KEY_PREFIX + userId;
+    }
+
+    // Redis is updated only once the database change is committed; failures are left to the rebuild job.
+    // Cached pages are dropped after the update (and after the commit, for pages served from the database),
+    // only for the affected quiz, or for every quiz when quizId is null.
+    private void afterCommit(Long quizId, Runnable update) {
+        Runnable guarded = () -> {
+            try {
+                update.run();
+            } catch (Exception e) {
+                log.warn("Leaderboard update failed, boards will be repaired by the next rebuild: {}", e.getMessage());
+            }
+            try {
+                evictQuizPages(quizId);
+            } catch (Exception e) {
+                log.warn("Leaderboard cache eviction failed: {}", e.getMessage());
+            }
+            globalPagesStale.set(true);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+
+    private void evictQuizPages(Long quizId) {
+        Cache cache = targetCache(CacheConfig.QUIZ_LEADERBOARD);
+        if (quizId != null && cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.evictGroup(quizId.toString());
+        } else {
+            cache.clear();
+        }
+    }
+
+    // Evictions here already run after commit, where a transaction-aware cache would defer them and never run them
+    private Cache targetCache(String name) {
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(name));
+        return cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+    }
+
+    private static Integer parseInt(String value) {
+        return value == null || value.isEmpty() ? null : Integer.valueOf(value);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -1,36 +1,121 @@
 package com.quizapp.backend.service;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.quizapp.backend.model.User;
 import com.quizapp.backend.model.UserPrincipal;
 import com.quizapp.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 
 @Service
-public class UserDetailService implements UserDetailsService {
+@Slf4j
+public class UserDetailService implements UserDetailsService, MessageListener {
+
+    // Carries usernames whose cached principal every node must drop
+    public static final String EVICT_CHANNEL = "principal:evict";
 
     private final UserRepository userRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Short-lived principals for token-authenticated requests; login always goes to the database
+    private final Cache<String, UserPrincipal> principals;
 
-    public UserDetailService(UserRepository userRepository) {
+    public UserDetailService(UserRepository userRepository,
+                             StringRedisTemplate redisTemplate,
+                             RedisMessageListenerContainer listenerContainer,
+                             @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+                             @Value("${app.security.principal-cache.ttl:30s}") Duration ttl) {
         this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(EVICT_CHANNEL));
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-        
+
         return new UserPrincipal(user);
     }
 
+    // Used by the JWT filter: the password hash isn't needed once the token is verified, so it isn't cached
+    public UserPrincipal loadCachedPrincipal(String username) throws UsernameNotFoundException {
+        UserPrincipal principal = principals.getIfPresent(username);
+        if (principal == null) {
+            principal = ((UserPrincipal) loadUserByUsername(username)).withoutPassword();
+            principals.put(username, principal);
+        }
+        return principal;
+    }
+
+    // Drops the principal on every node, so a disabled or deleted user is locked out cluster-wide
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        principals.invalidate(username);
+
+        // Evict again after commit, so a request racing the change can't re-cache the old principal;
+        // other nodes are only told then, once a reload would see the change
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    principals.invalidate(username);
+                    publishEvict(username);
+                }
+            });
+        } else {
+            publishEvict(username);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        principals.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    // Best effort: if Redis is down other nodes fall back on the cache TTL
+    private void publishEvict(String username) {
+        try {
+            redisTemplate.convertAndSend(EVICT_CHANNEL, username);
+        } catch (Exception e) {
+            log.warn("Could not publish principal eviction for {}: {}", username, e.getMessage());
+        }
+    }
+
     // Additional method to load user by email
     public UserDetails loadUserByEmail(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-        
+
         return new UserPrincipal(user);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.dto.request.UserDirectoryRequest;
+import com.quizapp.backend.dto.request.UserDirectorySort;
+import com.quizapp.backend.exception.BadRequestException;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset position in the admin user directory: the sort and direction it was issued for, then the last
+// row's sort value and id. Encoded as base64url("SORT:DIRECTION:id:value"), value last since it may hold colons;
+// a NULL sort value is encoded as "SORT:DIRECTION:id", with no value part at all.
+@Value
+class UserDirectoryCursor {
+
+    Object value;
+    Long id;
+
+    static String encode(UserDirectoryRequest request, Object value, Long id) {
+        String raw = request.getSort().name() + ":" + request.getDirection().name() + ":" + id
+                + (value != null ? ":" + value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserDirectoryCursor decode(String cursor, UserDirectoryRequest request) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 4);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (parts.length < 3) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (!parts[0].equals(request.getSort().name()) || !parts[1].equals(request.getDirection().name())) {
+            throw new BadRequestException("Cursor was issued for a different sort; start again without a cursor");
+        }
+        try {
+            Object value = parts.length == 4 ? parseValue(request.getSort(), parts[3]) : null;
+            return new UserDirectoryCursor(value, Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static Object parseValue(UserDirectorySort sort, String value) {
+        Class<?> type = sort.getValueType();
+        if (type == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == BigDecimal.class) {
+            return new BigDecimal(value);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        return value;
+    }
+}
@@ -1,5 +1,6 @@
 package com.quizapp.backend.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,8 +16,11 @@ import com.quizapp.backend.dto.response.UserResponse;
 import com.quizapp.backend.exception.BadRequestException;
 import com.quizapp.backend.repository.QuizAttemptRepository;
 import com.quizapp.backend.repository.UserRepository;
+import com.quizapp.backend.repository.UserStatsRepository;
+import com.quizapp.backend.security.CurrentUser;
 import com.quizapp.backend.model.QuizAttempt;
 import com.quizapp.backend.model.User;
+import com.quizapp.backend.model.UserStats;
 import com.quizapp.backend.model.Option;
 
 import lombok.RequiredArgsConstructor;
@@ -26,6 +30,9 @@ import lombok.RequiredArgsConstructor;
 public class UserService {
     private final UserRepository userRepository;
     private final QuizAttemptRepository quizAttemptRepository;
+    private final RedisLeaderboard redisLeaderboard;
+    private final UserDetailService userDetailService;
+    private final UserStatsRepository userStatsRepository;
 
     @Transactional
     public UserResponse getCurrentUser() {
@@ -65,6 +72,9 @@ public class UserService {
 
         // Delete the user
         userRepository.delete(user);
+        userStatsRepository.deleteByUserId(user.getId());
+        userDetailService.evict(user.getUsername());
+        redisLeaderboard.removeUser(user.getId());
     }
 
 
@@ -79,9 +89,9 @@ public class UserService {
         return mapToUserResponse(user);
     }
 
+    @Transactional(readOnly = true)
     public List<QuizResultDTO> getQuizHistoryForCurrentUser() {
-        User currentUser = getCurrentAuthenticatedUser();
-        List<QuizAttempt> attempts = quizAttemptRepository.findByUserId(currentUser.getId());
+        List<QuizAttempt> attempts = quizAttemptRepository.findByUserId(CurrentUser.id());
     
         return attempts.stream()
                 .map(attempt -> QuizResultDTO.builder()
@@ -104,7 +114,7 @@ public class UserService {
                                                 .filter(Option::isCorrect)
                                                 .map(Option::getId)
                                                 .collect(Collectors.toList()))
-                                                .selectedOptionIds(answer.getSelectedOptionIds())
+                                                .selectedOptionIds(new ArrayList<>(answer.getSelectedOptionIds()))
                                         .build())
                                 .collect(Collectors.toList()))
                         .build())
@@ -121,9 +131,9 @@ public class UserService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
     }
 
+    @Transactional(readOnly = true)
     public List<QuizResultDTO> getQuizHistoryForCurrentUserByQuizId(Long quizId) {
-        User currentUser = getCurrentAuthenticatedUser();
-        List<QuizAttempt> attempts = quizAttemptRepository.findByUserIdAndQuizId(currentUser.getId(), quizId);
+        List<QuizAttempt> attempts = quizAttemptRepository.findByUserIdAndQuizId(CurrentUser.id(), quizId);
     
         return attempts.stream()
                 .map(attempt -> QuizResultDTO.builder()
@@ -139,7 +149,7 @@ public class UserService {
                                 .map(answer -> QuestionResultDTO.builder()
                                         .questionId(answer.getQuestion().getId())
                                         .questionText(answer.getQuestion().getText())
-                                        .selectedOptionIds(answer.getSelectedOptionIds())
+                                        .selectedOptionIds(new ArrayList<>(answer.getSelectedOptionIds()))
                                         .correctOptionIds(answer.getQuestion().getOptions().stream()
                                                 .filter(Option::isCorrect)
                                                 .map(Option::getId)
@@ -157,12 +167,9 @@ public class UserService {
 
 
     public UserResponse mapToUserResponse(User user) {
-        // Calculate quizzes taken and average score
-        int quizzesTaken = quizAttemptRepository.findByUserId(user.getId()).size();
-        double averageScore = quizAttemptRepository.findByUserId(user.getId()).stream()
-                .mapToInt(QuizAttempt::getScore)
-                .average()
-                .orElse(0.0);
+        // Quizzes taken and average score come from the maintained aggregates, one primary key read
+        UserStats stats = userStatsRepository.findById(user.getId())
+                .orElseGet(() -> UserStats.empty(user.getId()));
     
         return UserResponse.builder()
                 .id(user.getId())
@@ -173,8 +180,8 @@ public class UserService {
                 .role(user.getRole().name())
                 .enabled(user.isEnabled())
                 .joinDate(user.getCreatedAt() != null ? user.getCreatedAt().toLocalDate().toString() : "N/A")
-                .quizzesTaken(quizzesTaken) // Set quizzesTaken
-                .averageScore(Math.round(averageScore * 100.0) / 100.0) // Set averageScore
+                .quizzesTaken(stats.getAttemptCount()) // Set quizzesTaken
+                .averageScore(stats.getAverageScore()) // Set averageScore
                 .build();
     }
 
@@ -0,0 +1,90 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.repository.UserRepository;
+import com.quizapp.backend.repository.UserStatsRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Backfills user_stats on first start and periodically recomputes it from quiz_attempts to repair drift
+// (attempts removed by database cascades, failed incremental updates). Works through users in id order,
+// one short transaction per batch, so it never holds locks on the whole table.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserStatsReconcileJob {
+
+    private static final String LOCK_KEY = "user-stats:reconcile:lock";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(30);
+    private static final int BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            if (userStatsRepository.count() == 0 && userRepository.count() > 0) {
+                reconcile();
+                return;
+            }
+            // Users created before registration started adding a row; the directory's stats sorts skip them
+            List<Long> missing;
+            do {
+                missing = userStatsRepository.findUserIdsWithoutStats(PageRequest.of(0, BATCH_SIZE));
+                if (!missing.isEmpty()) {
+                    userStatsRepository.recompute(missing);
+                }
+            } while (missing.size() == BATCH_SIZE);
+        } catch (Exception e) {
+            log.warn("User stats backfill failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.user-stats.reconcile-cron:0 0 4 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("Scheduled user stats reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    public void reconcile() {
+        // Only one node reconciles at a time
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, "1", LOCK_TTL))) {
+            log.info("User stats reconcile already running elsewhere, skipping");
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            long users = 0;
+            long afterId = 0;
+            List<Long> batch;
+            do {
+                batch = userRepository.findIdsAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+                if (!batch.isEmpty()) {
+                    userStatsRepository.recompute(batch);
+                    users += batch.size();
+                    afterId = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == BATCH_SIZE);
+            int orphaned = userStatsRepository.deleteOrphaned();
+            log.info("Reconciled stats for {} users ({} orphaned rows removed) in {} ms",
+                    users, orphaned, System.currentTimeMillis() - started);
+        } finally {
+            redisTemplate.delete(LOCK_KEY);
+        }
+    }
+}
@@ -25,6 +25,10 @@ CREATE TABLE IF NOT EXISTS quizzes (
     time_limit_minutes INT DEFAULT NULL,
     passing_score INT DEFAULT NULL,
     difficulty ENUM('EASY', 'MEDIUM', 'HARD', 'UNASSIGNED') DEFAULT 'UNASSIGNED',
+    scored_attempts BIGINT NOT NULL DEFAULT 0,
+    score_sum BIGINT NOT NULL DEFAULT 0,
+    max_score_sum BIGINT NOT NULL DEFAULT 0,
+    empirical_difficulty ENUM('EASY', 'MEDIUM', 'HARD', 'UNASSIGNED') DEFAULT 'UNASSIGNED',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (created_by) REFERENCES users(id) ON DELETE CASCADE
@@ -41,11 +45,19 @@ CREATE TABLE IF NOT EXISTS questions (
     explanation TEXT,
     attempts INT DEFAULT 0,
     correct_selections INT DEFAULT 0,
+    empirical_difficulty ENUM('EASY', 'MEDIUM', 'HARD', 'UNASSIGNED') DEFAULT 'UNASSIGNED',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (quiz_id) REFERENCES quizzes(id) ON DELETE CASCADE
 );
 
+-- Tables created before difficulty was measured from attempts (each fails harmlessly once its column exists)
+ALTER TABLE quizzes ADD COLUMN scored_attempts BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE quizzes ADD COLUMN score_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE quizzes ADD COLUMN max_score_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE quizzes ADD COLUMN empirical_difficulty ENUM('EASY', 'MEDIUM', 'HARD', 'UNASSIGNED') DEFAULT 'UNASSIGNED';
+ALTER TABLE questions ADD COLUMN empirical_difficulty ENUM('EASY', 'MEDIUM', 'HARD', 'UNASSIGNED') DEFAULT 'UNASSIGNED';
+
 -- Table: options
 CREATE TABLE IF NOT EXISTS options (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -93,6 +105,44 @@ CREATE TABLE IF NOT EXISTS user_answer_options (
     FOREIGN KEY (option_id) REFERENCES options(id) ON DELETE CASCADE
 );
 
+-- Table: user_answer_id_blocks (each row reserves one block of user_answers ids, see BlockIdGenerator;
+-- seeded past the existing rows by IdGeneratorSeeder on startup)
+CREATE TABLE IF NOT EXISTS user_answer_id_blocks (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT
+);
+
+-- Table: user_stats (per-user attempt aggregates, maintained on attempt start, completion and deletion)
+CREATE TABLE IF NOT EXISTS user_stats (
+    user_id BIGINT PRIMARY KEY,
+    attempt_count INT NOT NULL DEFAULT 0,
+    completed_count INT NOT NULL DEFAULT 0,
+    score_sum BIGINT NOT NULL DEFAULT 0,
+    best_score INT NULL,
+    last_activity_at DATETIME(6) NULL,
+    average_score DECIMAL(12,2) GENERATED ALWAYS AS (ROUND(COALESCE(score_sum / NULLIF(attempt_count, 0), 0), 2)) STORED,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+-- Tables created before the admin directory sorted on it (fails harmlessly once the column exists)
+ALTER TABLE user_stats ADD COLUMN average_score DECIMAL(12,2)
+    GENERATED ALWAYS AS (ROUND(COALESCE(score_sum / NULLIF(attempt_count, 0), 0), 2)) STORED;
+
+INSERT IGNORE INTO user_stats (user_id, attempt_count, completed_count, score_sum, best_score, last_activity_at)
+SELECT u.id, COUNT(a.id),
+    COALESCE(SUM(CASE WHEN a.status = 'COMPLETED' THEN 1 ELSE 0 END), 0),
+    COALESCE(SUM(CASE WHEN a.status = 'COMPLETED' THEN a.score ELSE 0 END), 0),
+    MAX(CASE WHEN a.status = 'COMPLETED' THEN a.score END),
+    MAX(COALESCE(a.completed_at, a.started_at))
+FROM users u LEFT JOIN quiz_attempts a ON a.user_id = u.id
+GROUP BY u.id;
+
+-- Table: job_watermarks (how far each incremental background job has processed completed attempts)
+CREATE TABLE IF NOT EXISTS job_watermarks (
+    name VARCHAR(64) PRIMARY KEY,
+    last_completed_at DATETIME(6) NOT NULL,
+    last_id BIGINT NOT NULL,
+    updated_at DATETIME(6) NULL
+);
+
 -- View: leaderboard
 DROP VIEW IF EXISTS leaderboard;
 CREATE VIEW leaderboard AS
@@ -171,14 +221,114 @@ GROUP BY
 ORDER BY 
     total_score DESC;
 
--- Create indexes if they don't exist
-CREATE INDEX IF NOT EXISTS idx_quizzes_created_by ON quizzes(created_by);
-CREATE INDEX IF NOT EXISTS idx_questions_quiz_id ON questions(quiz_id);
-CREATE INDEX IF NOT EXISTS idx_options_question_id ON options(question_id);
-CREATE INDEX IF NOT EXISTS idx_quiz_attempts_user_id ON quiz_attempts(user_id);
-CREATE INDEX IF NOT EXISTS idx_quiz_attempts_quiz_id ON quiz_attempts(quiz_id);
-CREATE INDEX IF NOT EXISTS idx_user_answers_attempt_id ON user_answers(attempt_id);
-CREATE INDEX IF NOT EXISTS idx_user_answers_is_correct ON user_answers(is_correct);
+-- Create indexes if they don't exist. MySQL has no CREATE INDEX IF NOT EXISTS, so each one is checked
+-- against information_schema and created through a prepared statement
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'quizzes' AND index_name = 'idx_quizzes_created_by') = 0,
+    'CREATE INDEX idx_quizzes_created_by ON quizzes(created_by)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'quizzes' AND index_name = 'idx_quizzes_category_difficulty') = 0,
+    'CREATE INDEX idx_quizzes_category_difficulty ON quizzes(category, difficulty, id)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'questions' AND index_name = 'idx_questions_quiz_id') = 0,
+    'CREATE INDEX idx_questions_quiz_id ON questions(quiz_id)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'options' AND index_name = 'idx_options_question_id') = 0,
+    'CREATE INDEX idx_options_question_id ON options(question_id)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'quiz_attempts' AND index_name = 'idx_quiz_attempts_user_id') = 0,
+    'CREATE INDEX idx_quiz_attempts_user_id ON quiz_attempts(user_id)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'quiz_attempts' AND index_name = 'idx_quiz_attempts_quiz_id') = 0,
+    'CREATE INDEX idx_quiz_attempts_quiz_id ON quiz_attempts(quiz_id)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'quiz_attempts' AND index_name = 'idx_quiz_attempts_status_score') = 0,
+    'CREATE INDEX idx_quiz_attempts_status_score ON quiz_attempts(status, score)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'quiz_attempts' AND index_name = 'idx_quiz_attempts_quiz_status_score') = 0,
+    'CREATE INDEX idx_quiz_attempts_quiz_status_score ON quiz_attempts(quiz_id, status, score)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'quiz_attempts' AND index_name = 'idx_quiz_attempts_status_completed') = 0,
+    'CREATE INDEX idx_quiz_attempts_status_completed ON quiz_attempts(status, completed_at, id)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Sort keys of the admin user directory
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_created_at') = 0,
+    'CREATE INDEX idx_users_created_at ON users(created_at)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'user_stats' AND index_name = 'idx_user_stats_attempt_count') = 0,
+    'CREATE INDEX idx_user_stats_attempt_count ON user_stats(attempt_count)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'user_stats' AND index_name = 'idx_user_stats_average_score') = 0,
+    'CREATE INDEX idx_user_stats_average_score ON user_stats(average_score)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'user_stats' AND index_name = 'idx_user_stats_last_activity') = 0,
+    'CREATE INDEX idx_user_stats_last_activity ON user_stats(last_activity_at)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- At most one IN_PROGRESS attempt per user and quiz (MySQL has no partial indexes, so key on a generated flag)
+UPDATE quiz_attempts a
+JOIN (
+    SELECT user_id, quiz_id, MAX(id) AS keep_id
+    FROM quiz_attempts
+    WHERE status = 'IN_PROGRESS'
+    GROUP BY user_id, quiz_id
+    HAVING COUNT(*) > 1
+) d ON a.user_id = d.user_id AND a.quiz_id = d.quiz_id
+SET a.status = 'ABANDONED', a.completed_at = NOW()
+WHERE a.status = 'IN_PROGRESS' AND a.id <> d.keep_id;
+ALTER TABLE quiz_attempts ADD COLUMN active_flag TINYINT GENERATED ALWAYS AS (CASE WHEN status = 'IN_PROGRESS' THEN 1 END) STORED;
+CREATE UNIQUE INDEX uk_quiz_attempts_active ON quiz_attempts(user_id, quiz_id, active_flag);
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'user_answers' AND index_name = 'idx_user_answers_attempt_id') = 0,
+    'CREATE INDEX idx_user_answers_attempt_id ON user_answers(attempt_id)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'user_answers' AND index_name = 'idx_user_answers_is_correct') = 0,
+    'CREATE INDEX idx_user_answers_is_correct ON user_answers(is_correct)', 'SELECT 1');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
 
 -- Insert a sample quiz
 INSERT INTO quizzes (title, description, created_by, is_published)
@@ -0,0 +1,566 @@
+package com.quizapp.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizapp.backend.security.JwtTokenProvider;
+import com.quizapp.backend.service.AnswerKeyCache;
+import com.quizapp.backend.service.UserDetailService;
+import com.quizapp.backend.support.ContainerIntegrationTest;
+import com.quizapp.backend.support.SqlStatementBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Upper bound on SQL statements per endpoint, measured cold (caches and the cached principal dropped
+// first) against a fixed fixture: 3 users with 4 completed attempts over 2 quizzes of 3 questions.
+// A new N+1 multiplies with that data and fails here.
+class ControllerStatementBudgetTest extends ContainerIntegrationTest {
+
+    private static final Map<String, Integer> BUDGETS = Map.ofEntries(
+            Map.entry("GET /api/admin/users", 2),
+            Map.entry("GET /api/admin/admins", 2),
+            Map.entry("GET /api/admin/user-details", 2),
+            Map.entry("GET /api/admin/user-directory", 2),
+            Map.entry("GET /api/admin/user-directory/export", 2),
+            Map.entry("GET /api/admin/user/{username}", 3),
+            Map.entry("DELETE /api/admin/user/{username}", 4),
+            Map.entry("PATCH /api/admin/update-user-status/{username}", 3),
+            Map.entry("GET /api/admin/cache-stats", 1),
+            Map.entry("GET /api/admin/password-hashing-stats", 1),
+            Map.entry("GET /api/admin/profile", 3),
+            Map.entry("POST /api/auth/login", 1),
+            Map.entry("POST /api/auth/register", 4),
+            Map.entry("POST /api/auth/logout", 1),
+            Map.entry("POST /api/auth/token/refresh", 1),
+            Map.entry("GET /api/health", 0),
+            Map.entry("GET /api/leaderboard", 1),
+            Map.entry("GET /api/leaderboard/quiz/{quizId}", 1),
+            Map.entry("GET /api/leaderboard/me", 1),
+            Map.entry("GET /api/leaderboard/quiz/{quizId}/me", 1),
+            Map.entry("POST /api/quizzes/{quizId}/questions/add", 6),
+            Map.entry("GET /api/quizzes/{quizId}/questions", 5),
+            Map.entry("PUT /api/quizzes/{quizId}/questions/{questionId}", 7),
+            Map.entry("DELETE /api/quizzes/{quizId}/questions/{questionId}", 4),
+            Map.entry("POST /api/attempts/start", 10),
+            Map.entry("POST /api/attempts/{attemptId}/submit", 12),
+            Map.entry("POST /api/attempts/abandon", 4),
+            Map.entry("POST /api/attempts/end", 5),
+            Map.entry("POST /api/attempts/end-and-start", 6),
+            Map.entry("GET /api/attempts/user", 2),
+            Map.entry("GET /api/attempts/user/{attemptId}", 11),
+            Map.entry("GET /api/attempts/user/quiz-history/{attemptId}", 11),
+            Map.entry("DELETE /api/attempts/user/{attemptId}", 10),
+            Map.entry("DELETE /api/attempts/user", 15),
+            Map.entry("DELETE /api/attempts/user/bulk", 10),
+            Map.entry("POST /api/quizzes/create", 14),
+            Map.entry("GET /api/quizzes", 10),
+            Map.entry("GET /api/quizzes/catalog", 2),
+            Map.entry("GET /api/quizzes/{quizId}", 6),
+            Map.entry("PUT /api/quizzes/{quizId}", 7),
+            Map.entry("DELETE /api/quizzes/{quizId}", 14),
+            Map.entry("GET /api/quizzes/history/{quizId}", 19),
+            Map.entry("GET /api/quizzes/categories", 1),
+            Map.entry("GET /api/quizzes/categories/counts", 1),
+            Map.entry("GET /api/user/profile", 3),
+            Map.entry("GET /api/user/profile/{username}", 3),
+            Map.entry("DELETE /api/user/delete", 4),
+            Map.entry("GET /api/user/quiz-history", 20),
+            Map.entry("GET /api/user/quiz-histoy/{quizId}", 11));
+
+    private static final String PASSWORD = "budget-password";
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserDetailService userDetailService;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private SqlStatementBudget budget;
+
+    // Usernames get a per-test suffix so nothing cached by username outlives the test that created it
+    private String suffix;
+    private String admin;
+    private String alice;
+    private String bob;
+    private String carol;
+    private long quizA;
+    private long quizB;
+    private long aliceAttemptA;
+    private final List<Long> quizIds = new ArrayList<>();
+    private final Set<String> usernames = new TreeSet<>();
+
+    @BeforeEach
+    void seed() throws Exception {
+        resetData();
+        budget = new SqlStatementBudget(meterRegistry, BUDGETS);
+        suffix = "-" + RUN.incrementAndGet();
+        quizIds.clear();
+        usernames.clear();
+
+        admin = register("admin", "ADMIN");
+        alice = register("alice", "USER");
+        bob = register("bob", "USER");
+        carol = register("carol", "USER");
+        quizA = createQuiz("Quiz A", "Science");
+        quizB = createQuiz("Quiz B", "History");
+
+        aliceAttemptA = completeAttempt(alice, quizA);
+        completeAttempt(alice, quizB);
+        completeAttempt(bob, quizA);
+        completeAttempt(carol, quizA);
+    }
+
+    @Test
+    void everyControllerEndpointHasABudget() {
+        Set<String> endpoints = SqlStatementBudget.endpoints(handlerMapping, "com.quizapp.backend.controller");
+        assertThat(BUDGETS.keySet()).as("endpoints with a statement budget").containsAll(endpoints);
+    }
+
+    // Admin
+
+    @Test
+    void adminUsers() throws Exception {
+        measure("GET /api/admin/users", admin, get("/api/admin/users"));
+    }
+
+    @Test
+    void adminAdmins() throws Exception {
+        measure("GET /api/admin/admins", admin, get("/api/admin/admins"));
+    }
+
+    @Test
+    void adminUserDetails() throws Exception {
+        measure("GET /api/admin/user-details", admin, get("/api/admin/user-details"));
+    }
+
+    @Test
+    void adminUserDirectory() throws Exception {
+        // Second page, so the keyset predicate is part of the measured query
+        JsonNode first = perform(admin, directory().param("size", "2"));
+        measure("GET /api/admin/user-directory", admin,
+                directory().param("size", "2").param("cursor", first.get("nextCursor").asText()));
+    }
+
+    @Test
+    void adminUserDirectoryExport() throws Exception {
+        measure("GET /api/admin/user-directory/export", admin, get("/api/admin/user-directory/export")
+                .param("role", "USER").param("sort", "LAST_ACTIVITY"));
+    }
+
+    @Test
+    void adminUser() throws Exception {
+        measure("GET /api/admin/user/{username}", admin, get("/api/admin/user/" + alice));
+    }
+
+    // The test schema comes from ddl-auto, whose foreign keys don't cascade like the production ones,
+    // so the delete endpoints are measured on rows nothing else references yet
+
+    @Test
+    void adminDeleteUser() throws Exception {
+        String dave = register("dave", "USER");
+        measure("DELETE /api/admin/user/{username}", admin, delete("/api/admin/user/" + dave));
+    }
+
+    @Test
+    void adminUpdateUserStatus() throws Exception {
+        measure("PATCH /api/admin/update-user-status/{username}", admin,
+                json(patch("/api/admin/update-user-status/" + bob), Map.of("enabled", true)));
+    }
+
+    @Test
+    void adminCacheStats() throws Exception {
+        measure("GET /api/admin/cache-stats", admin, get("/api/admin/cache-stats"));
+    }
+
+    @Test
+    void adminPasswordHashingStats() throws Exception {
+        measure("GET /api/admin/password-hashing-stats", admin, get("/api/admin/password-hashing-stats"));
+    }
+
+    @Test
+    void adminProfile() throws Exception {
+        measure("GET /api/admin/profile", admin, get("/api/admin/profile"));
+    }
+
+    // Auth
+
+    @Test
+    void login() throws Exception {
+        measure("POST /api/auth/login", null, loginRequest(alice));
+    }
+
+    @Test
+    void register() throws Exception {
+        measure("POST /api/auth/register", null, registerRequest("erin" + suffix, "USER"));
+    }
+
+    @Test
+    void logout() throws Exception {
+        Cookie refreshCookie = login(bob);
+        measure("POST /api/auth/logout", bob, post("/api/auth/logout").cookie(refreshCookie));
+    }
+
+    @Test
+    void refreshToken() throws Exception {
+        Cookie refreshCookie = login(bob);
+        measure("POST /api/auth/token/refresh", null, post("/api/auth/token/refresh").cookie(refreshCookie));
+    }
+
+    @Test
+    void health() throws Exception {
+        measure("GET /api/health", null, get("/api/health"));
+    }
+
+    // Leaderboard
+
+    @Test
+    void globalLeaderboard() throws Exception {
+        measure("GET /api/leaderboard", alice, get("/api/leaderboard"));
+    }
+
+    @Test
+    void quizLeaderboard() throws Exception {
+        measure("GET /api/leaderboard/quiz/{quizId}", alice, get("/api/leaderboard/quiz/" + quizA));
+    }
+
+    @Test
+    void globalPosition() throws Exception {
+        measure("GET /api/leaderboard/me", alice, get("/api/leaderboard/me"));
+    }
+
+    @Test
+    void quizPosition() throws Exception {
+        measure("GET /api/leaderboard/quiz/{quizId}/me", alice, get("/api/leaderboard/quiz/" + quizA + "/me"));
+    }
+
+    // Questions
+
+    @Test
+    void addQuestion() throws Exception {
+        measure("POST /api/quizzes/{quizId}/questions/add", admin,
+                json(post("/api/quizzes/" + quizB + "/questions/add"), question("Added question", 0)));
+    }
+
+    @Test
+    void questionsByQuiz() throws Exception {
+        measure("GET /api/quizzes/{quizId}/questions", admin, get("/api/quizzes/" + quizA + "/questions"));
+    }
+
+    @Test
+    void updateQuestion() throws Exception {
+        long questionId = firstQuestionId(quizB);
+        measure("PUT /api/quizzes/{quizId}/questions/{questionId}", admin,
+                json(put("/api/quizzes/" + quizB + "/questions/" + questionId), question("Reworded question", 1)));
+    }
+
+    @Test
+    void deleteQuestion() throws Exception {
+        long quizC = createQuiz("Quiz C", "Science");
+        long questionId = firstQuestionId(quizC);
+        measure("DELETE /api/quizzes/{quizId}/questions/{questionId}", admin,
+                delete("/api/quizzes/" + quizC + "/questions/" + questionId));
+    }
+
+    // Attempts
+
+    @Test
+    void startAttempt() throws Exception {
+        measure("POST /api/attempts/start", bob, json(post("/api/attempts/start"), Map.of("quizId", quizB)));
+    }
+
+    @Test
+    void submitAttempt() throws Exception {
+        JsonNode started = startAttempt(bob, quizB);
+        long attemptId = started.get("attempt").get("id").asLong();
+        measure("POST /api/attempts/{attemptId}/submit", bob,
+                json(post("/api/attempts/" + attemptId + "/submit"), submission(attemptId, started)));
+    }
+
+    @Test
+    void abandonAttempt() throws Exception {
+        long attemptId = startAttempt(bob, quizB).get("attempt").get("id").asLong();
+        measure("POST /api/attempts/abandon", bob,
+                json(post("/api/attempts/abandon"), Map.of("attemptId", attemptId, "reason", "Left the page")));
+    }
+
+    @Test
+    void endAttempt() throws Exception {
+        startAttempt(bob, quizB);
+        measure("POST /api/attempts/end", bob, json(post("/api/attempts/end"), Map.of("quizId", quizB)));
+    }
+
+    @Test
+    void endAndStartAttempt() throws Exception {
+        startAttempt(bob, quizB);
+        measure("POST /api/attempts/end-and-start", bob,
+                json(post("/api/attempts/end-and-start"), Map.of("quizId", quizB)));
+    }
+
+    @Test
+    void userAttempts() throws Exception {
+        measure("GET /api/attempts/user", alice, get("/api/attempts/user"));
+    }
+
+    @Test
+    void userAttempt() throws Exception {
+        measure("GET /api/attempts/user/{attemptId}", alice, get("/api/attempts/user/" + aliceAttemptA));
+    }
+
+    @Test
+    void attemptDetails() throws Exception {
+        measure("GET /api/attempts/user/quiz-history/{attemptId}", alice,
+                get("/api/attempts/user/quiz-history/" + aliceAttemptA));
+    }
+
+    @Test
+    void deleteAttempt() throws Exception {
+        measure("DELETE /api/attempts/user/{attemptId}", alice, delete("/api/attempts/user/" + aliceAttemptA));
+    }
+
+    @Test
+    void deleteAllAttempts() throws Exception {
+        measure("DELETE /api/attempts/user", alice, delete("/api/attempts/user"));
+    }
+
+    @Test
+    void deleteAttemptsInBulk() throws Exception {
+        measure("DELETE /api/attempts/user/bulk", alice,
+                json(delete("/api/attempts/user/bulk"), List.of(aliceAttemptA)));
+    }
+
+    // Quizzes
+
+    @Test
+    void createQuiz() throws Exception {
+        measure("POST /api/quizzes/create", admin, json(post("/api/quizzes/create"), quiz("Quiz C", "Science")));
+    }
+
+    @Test
+    void allQuizzes() throws Exception {
+        measure("GET /api/quizzes", alice, get("/api/quizzes"));
+    }
+
+    @Test
+    void quizCatalog() throws Exception {
+        measure("GET /api/quizzes/catalog", alice, get("/api/quizzes/catalog"));
+    }
+
+    @Test
+    void quizById() throws Exception {
+        measure("GET /api/quizzes/{quizId}", alice, get("/api/quizzes/" + quizA));
+    }
+
+    @Test
+    void updateQuiz() throws Exception {
+        measure("PUT /api/quizzes/{quizId}", admin, json(put("/api/quizzes/" + quizA), quiz("Quiz A v2", "Science")));
+    }
+
+    @Test
+    void deleteQuiz() throws Exception {
+        long quizC = createQuiz("Quiz C", "Science");
+        measure("DELETE /api/quizzes/{quizId}", admin, delete("/api/quizzes/" + quizC));
+    }
+
+    @Test
+    void quizHistory() throws Exception {
+        measure("GET /api/quizzes/history/{quizId}", alice, get("/api/quizzes/history/" + quizA));
+    }
+
+    @Test
+    void categories() throws Exception {
+        measure("GET /api/quizzes/categories", null, get("/api/quizzes/categories"));
+    }
+
+    @Test
+    void categoryCounts() throws Exception {
+        measure("GET /api/quizzes/categories/counts", null, get("/api/quizzes/categories/counts"));
+    }
+
+    // Users
+
+    @Test
+    void userProfile() throws Exception {
+        measure("GET /api/user/profile", alice, get("/api/user/profile"));
+    }
+
+    @Test
+    void userProfileByUsername() throws Exception {
+        measure("GET /api/user/profile/{username}", alice,
+                get("/api/user/profile/" + bob).param("username", bob));
+    }
+
+    @Test
+    void deleteCurrentUser() throws Exception {
+        String dave = register("dave", "USER");
+        measure("DELETE /api/user/delete", dave, delete("/api/user/delete"));
+    }
+
+    @Test
+    void userQuizHistory() throws Exception {
+        measure("GET /api/user/quiz-history", alice, get("/api/user/quiz-history"));
+    }
+
+    @Test
+    void userQuizHistoryByQuiz() throws Exception {
+        measure("GET /api/user/quiz-histoy/{quizId}", alice,
+                get("/api/user/quiz-histoy/" + quizA).param("quizId", String.valueOf(quizA)));
+    }
+
+    // Measured on a cold path: no cached principal, answer keys or Spring caches
+    private void measure(String endpoint, String username, MockHttpServletRequestBuilder request) throws Exception {
+        clearCaches();
+        usernames.forEach(userDetailService::evict);
+        quizIds.forEach(answerKeyCache::evict);
+        if (username != null) {
+            request.header("Authorization", "Bearer " + tokenProvider.generateToken(username));
+        }
+        budget.assertWithinBudget(endpoint, () -> {
+            MvcResult result = mockMvc.perform(request).andReturn();
+            if (result.getRequest().isAsyncStarted()) {
+                result = mockMvc.perform(asyncDispatch(result)).andReturn();
+            }
+            assertThat(result.getResponse().getStatus()).as(endpoint + " status").isBetween(200, 299);
+        });
+    }
+
+    private String register(String name, String role) throws Exception {
+        String username = name + suffix;
+        mockMvc.perform(registerRequest(username, role)).andExpect(status().isOk());
+        usernames.add(username);
+        return username;
+    }
+
+    private MockHttpServletRequestBuilder registerRequest(String username, String role) throws Exception {
+        return json(post("/api/auth/register"), Map.of(
+                "username", username,
+                "email", username + "@budget.test",
+                "password", PASSWORD,
+                "role", role));
+    }
+
+    private MockHttpServletRequestBuilder loginRequest(String username) throws Exception {
+        return json(post("/api/auth/login"), Map.of("email", username + "@budget.test", "password", PASSWORD));
+    }
+
+    private Cookie login(String username) throws Exception {
+        MvcResult result = mockMvc.perform(loginRequest(username)).andReturn();
+        result = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andReturn();
+        return result.getResponse().getCookie("refreshToken");
+    }
+
+    private long createQuiz(String title, String category) throws Exception {
+        JsonNode created = perform(admin, json(post("/api/quizzes/create"), quiz(title, category)));
+        long quizId = created.get("id").asLong();
+        quizIds.add(quizId);
+        return quizId;
+    }
+
+    private long firstQuestionId(long quizId) throws Exception {
+        return perform(admin, get("/api/quizzes/" + quizId + "/questions")).get(0).get("id").asLong();
+    }
+
+    private MockHttpServletRequestBuilder directory() {
+        return get("/api/admin/user-directory").param("sort", "QUIZZES_TAKEN").param("direction", "DESC");
+    }
+
+    private JsonNode startAttempt(String username, long quizId) throws Exception {
+        return perform(username, json(post("/api/attempts/start"), Map.of("quizId", quizId)));
+    }
+
+    private long completeAttempt(String username, long quizId) throws Exception {
+        JsonNode started = startAttempt(username, quizId);
+        long attemptId = started.get("attempt").get("id").asLong();
+        perform(username, json(post("/api/attempts/" + attemptId + "/submit"), submission(attemptId, started)));
+        return attemptId;
+    }
+
+    private JsonNode perform(String username, MockHttpServletRequestBuilder request) throws Exception {
+        AtomicReference<String> body = new AtomicReference<>();
+        mockMvc.perform(request.header("Authorization", "Bearer " + tokenProvider.generateToken(username)))
+                .andExpect(status().isOk())
+                .andDo(result -> body.set(result.getResponse().getContentAsString()));
+        return objectMapper.readTree(body.get());
+    }
+
+    private Map<String, Object> quiz(String title, String category) {
+        List<Map<String, Object>> questions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            questions.add(question(title + " question " + i, i));
+        }
+        return Map.of(
+                "title", title,
+                "description", "Statement budget fixture",
+                "timeLimitMinutes", 10,
+                "category", category,
+                "questions", questions);
+    }
+
+    private Map<String, Object> question(String text, int correctOption) {
+        List<Map<String, Object>> options = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            options.add(Map.of("text", "Option " + i, "isCorrect", i == correctOption));
+        }
+        return Map.of(
+                "text", text,
+                "questionType", "MULTIPLE_CHOICE",
+                "difficulty", "MEDIUM",
+                "options", options);
+    }
+
+    // Picks the first option of every question
+    private Map<String, Object> submission(long attemptId, JsonNode started) {
+        List<Map<String, Object>> answers = new ArrayList<>();
+        for (JsonNode question : started.get("quiz").get("questions")) {
+            answers.add(Map.of(
+                    "questionId", question.get("id").asLong(),
+                    "selectedOptionIds", List.of(question.get("options").get(0).get("id").asLong())));
+        }
+        return Map.of("attemptId", attemptId, "answers", answers);
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+}
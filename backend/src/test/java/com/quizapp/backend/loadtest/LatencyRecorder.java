@@ -0,0 +1,85 @@
+package com.quizapp.backend.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-endpoint latency samples, keyed by route template (e.g. "POST /api/attempts/{attemptId}/submit")
+class LatencyRecorder {
+
+    private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, int status) {
+        endpoints.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, status);
+    }
+
+    long totalRequests() {
+        return endpoints.values().stream().mapToLong(samples -> samples.requests.sum()).sum();
+    }
+
+    long totalErrors() {
+        return endpoints.values().stream().mapToLong(samples -> samples.errors.sum()).sum();
+    }
+
+    // Sorted by endpoint so reports from different runs line up
+    Map<String, Map<String, Object>> summary() {
+        Map<String, Map<String, Object>> summary = new LinkedHashMap<>();
+        new TreeMap<>(endpoints).forEach((endpoint, samples) -> summary.put(endpoint, samples.summary()));
+        return summary;
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void add(long elapsed, int status) {
+            requests.increment();
+            if (status >= 400 || status == 0) {
+                errors.increment();
+            }
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            synchronized (this) {
+                if (size == nanos.length) {
+                    nanos = Arrays.copyOf(nanos, size * 2);
+                }
+                nanos[size++] = elapsed;
+            }
+        }
+
+        Map<String, Object> summary() {
+            long[] sorted;
+            synchronized (this) {
+                sorted = Arrays.copyOf(nanos, size);
+            }
+            Arrays.sort(sorted);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", requests.sum());
+            summary.put("errors", errors.sum());
+            summary.put("p50Millis", percentile(sorted, 0.50));
+            summary.put("p95Millis", percentile(sorted, 0.95));
+            summary.put("p99Millis", percentile(sorted, 0.99));
+            summary.put("maxMillis", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1_000_000.0);
+            Map<String, Long> byStatus = new TreeMap<>();
+            statuses.forEach((status, count) -> byStatus.put(String.valueOf(status), count.sum()));
+            summary.put("statuses", byStatus);
+            return summary;
+        }
+
+        // Nearest-rank percentile
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+}
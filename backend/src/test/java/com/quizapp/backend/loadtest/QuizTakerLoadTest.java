@@ -0,0 +1,284 @@
+package com.quizapp.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// End-to-end load run against throwaway MySQL and Redis containers. Every virtual user registers, logs in,
+// browses the catalog, takes a quiz, checks the leaderboard and churns its refresh token; latencies are
+// reported per endpoint to target/load-test-report.json. Run with: mvn -Pload-test test
+// Sizing: -Dloadtest.users=500 -Dloadtest.concurrency=100 -Dloadtest.quizzes=10 -Dloadtest.refreshes=3
+@Tag("load")
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.jwt-secret=bG9hZC10ZXN0LXNlY3JldC1sb2FkLXRlc3Qtc2VjcmV0LWxvYWQtdGVzdC1zZWNyZXQtbG9hZC10ZXN0",
+        "spring.data.redis.ssl.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        // Many users share 127.0.0.1, so per-IP limits would measure the limiter rather than the app
+        "app.rate-limit.enabled=false"
+})
+class QuizTakerLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 200);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 50);
+    private static final int QUIZZES = Integer.getInteger("loadtest.quizzes", 5);
+    private static final int QUESTIONS_PER_QUIZ = Integer.getInteger("loadtest.questions", 10);
+    private static final int REFRESHES = Integer.getInteger("loadtest.refreshes", 3);
+    private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+    private static final String PASSWORD = "load-test-password";
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Container
+    @ServiceConnection(name = "redis")
+    static GenericContainer<?> redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+    @LocalServerPort
+    private int port;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final LongAdder failedScenarios = new LongAdder();
+    private HttpClient httpClient;
+
+    @Test
+    void quizTakerScenario() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newCachedThreadPool())
+                .build();
+
+        List<Long> quizIds = seedQuizzes();
+
+        Instant start = Instant.now();
+        List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            int user = i;
+            runs.add(workers.submit(() -> runQuizTaker(user, quizIds)));
+        }
+        for (Future<?> run : runs) {
+            run.get();
+        }
+        Duration elapsed = Duration.between(start, Instant.now());
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+
+        writeReport(elapsed);
+
+        long requests = recorder.totalRequests();
+        long errors = recorder.totalErrors();
+        assertThat(failedScenarios.sum()).as("scenarios that could not finish").isZero();
+        assertThat((double) errors / Math.max(1, requests)).as("error rate").isLessThanOrEqualTo(MAX_ERROR_RATE);
+    }
+
+    private List<Long> seedQuizzes() throws IOException, InterruptedException {
+        register("loadtest-admin", "ADMIN");
+        Session admin = login("loadtest-admin");
+
+        List<Long> quizIds = new ArrayList<>();
+        for (int q = 0; q < QUIZZES; q++) {
+            List<Map<String, Object>> questions = new ArrayList<>();
+            for (int n = 0; n < QUESTIONS_PER_QUIZ; n++) {
+                List<Map<String, Object>> options = new ArrayList<>();
+                for (int o = 0; o < 4; o++) {
+                    options.add(Map.of("text", "Option " + o, "isCorrect", o == n % 4));
+                }
+                questions.add(Map.of(
+                        "text", "Question " + n + " of quiz " + q,
+                        "questionType", "MULTIPLE_CHOICE",
+                        "difficulty", List.of("EASY", "MEDIUM", "HARD").get(n % 3),
+                        "options", options));
+            }
+            Map<String, Object> quiz = Map.of(
+                    "title", "Load test quiz " + q,
+                    "description", "Seeded by QuizTakerLoadTest",
+                    "timeLimitMinutes", 30,
+                    "category", "Category " + (q % 3),
+                    "questions", questions);
+            JsonNode created = expectOk(send("POST /api/quizzes/create",
+                    post("/api/quizzes/create", quiz).header("Authorization", admin.bearer())));
+            quizIds.add(created.get("id").asLong());
+        }
+        return quizIds;
+    }
+
+    private void runQuizTaker(int user, List<Long> quizIds) {
+        try {
+            String username = "loadtest-user-" + user;
+            register(username, "USER");
+            Session session = login(username);
+
+            expectOk(send("GET /api/quizzes/catalog",
+                    get("/api/quizzes/catalog?size=20").header("Authorization", session.bearer())));
+
+            long quizId = quizIds.get(ThreadLocalRandom.current().nextInt(quizIds.size()));
+            expectOk(send("GET /api/quizzes/{quizId}",
+                    get("/api/quizzes/" + quizId).header("Authorization", session.bearer())));
+
+            JsonNode started = expectOk(send("POST /api/attempts/start",
+                    post("/api/attempts/start", Map.of("quizId", quizId)).header("Authorization", session.bearer())));
+            long attemptId = started.get("attempt").get("id").asLong();
+
+            List<Map<String, Object>> answers = new ArrayList<>();
+            for (JsonNode question : started.get("quiz").get("questions")) {
+                JsonNode options = question.get("options");
+                long picked = options.get(ThreadLocalRandom.current().nextInt(options.size())).get("id").asLong();
+                answers.add(Map.of("questionId", question.get("id").asLong(), "selectedOptionIds", List.of(picked)));
+            }
+            expectOk(send("POST /api/attempts/{attemptId}/submit",
+                    post("/api/attempts/" + attemptId + "/submit", Map.of("attemptId", attemptId, "answers", answers))
+                            .header("Authorization", session.bearer())));
+
+            expectOk(send("GET /api/leaderboard/quiz/{quizId}",
+                    get("/api/leaderboard/quiz/" + quizId + "?size=10").header("Authorization", session.bearer())));
+            expectOk(send("GET /api/leaderboard/me",
+                    get("/api/leaderboard/me").header("Authorization", session.bearer())));
+
+            for (int r = 0; r < REFRESHES; r++) {
+                session = refresh(session);
+            }
+        } catch (Exception e) {
+            failedScenarios.increment();
+        }
+    }
+
+    private void register(String username, String role) throws IOException, InterruptedException {
+        expectOk(send("POST /api/auth/register", post("/api/auth/register", Map.of(
+                "username", username,
+                "email", username + "@loadtest.local",
+                "password", PASSWORD,
+                "role", role))));
+    }
+
+    private Session login(String username) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("POST /api/auth/login", post("/api/auth/login", Map.of(
+                "email", username + "@loadtest.local",
+                "password", PASSWORD)));
+        return session(response);
+    }
+
+    // The refresh cookie is marked Secure, so java.net's cookie handler won't replay it over plain http
+    private Session refresh(Session session) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("POST /api/auth/token/refresh",
+                HttpRequest.newBuilder(uri("/api/auth/token/refresh"))
+                        .header("Cookie", "refreshToken=" + session.refreshToken())
+                        .POST(HttpRequest.BodyPublishers.noBody()));
+        return session(response);
+    }
+
+    private Session session(HttpResponse<String> response) throws IOException {
+        JsonNode body = expectOk(response);
+        String refreshToken = response.headers().allValues("Set-Cookie").stream()
+                .filter(cookie -> cookie.startsWith("refreshToken="))
+                .map(cookie -> cookie.substring("refreshToken=".length(), cookie.indexOf(';')))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No refresh token cookie"));
+        return new Session(body.get("accessToken").asText(), refreshToken);
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, System.nanoTime() - start, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, 0);
+            throw e;
+        }
+    }
+
+    private JsonNode expectOk(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(response.request().uri().getPath() + " returned " + response.statusCode());
+        }
+        return response.body().isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Object body) throws IOException {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void writeReport(Duration elapsed) throws IOException {
+        Map<String, Map<String, Object>> endpoints = recorder.summary();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", USERS);
+        report.put("concurrency", CONCURRENCY);
+        report.put("quizzes", QUIZZES);
+        report.put("refreshesPerUser", REFRESHES);
+        report.put("elapsedSeconds", elapsed.toMillis() / 1000.0);
+        report.put("requests", recorder.totalRequests());
+        report.put("errors", recorder.totalErrors());
+        report.put("failedScenarios", failedScenarios.sum());
+        report.put("endpoints", endpoints);
+
+        Path output = Path.of("target", "load-test-report.json");
+        Files.createDirectories(output.getParent());
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+
+        StringBuilder table = new StringBuilder(String.format("%n%-42s %8s %7s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "p50 ms", "p95 ms", "p99 ms"));
+        endpoints.forEach((endpoint, stats) -> table.append(String.format("%-42s %8d %7d %9.1f %9.1f %9.1f%n",
+                endpoint, stats.get("requests"), stats.get("errors"),
+                stats.get("p50Millis"), stats.get("p95Millis"), stats.get("p99Millis"))));
+        table.append("Report written to ").append(output.toAbsolutePath());
+        System.out.println(table);
+    }
+
+    private record Session(String accessToken, String refreshToken) {
+
+        String bearer() {
+            return "Bearer " + accessToken;
+        }
+    }
+}
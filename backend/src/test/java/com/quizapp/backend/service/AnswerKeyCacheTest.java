@@ -0,0 +1,48 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.config.SqlStatementCounter;
+import com.quizapp.backend.support.ContainerIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Another node's eviction arrives over Redis pub/sub: the next lookup rebuilds the key from the database
+class AnswerKeyCacheTest extends ContainerIntegrationTest {
+
+    // No quiz has this id, so its key is empty but still built and cached like any other
+    private static final long QUIZ_ID = -1L;
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Test
+    void evictionPublishedByAnotherNodeDropsTheKey() throws Exception {
+        answerKeyCache.get(QUIZ_ID);
+        assertThat(statementsToGet()).isZero();
+
+        redisTemplate.convertAndSend(AnswerKeyCache.EVICT_CHANNEL, String.valueOf(QUIZ_ID));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        int statements = 0;
+        while (statements == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            statements = statementsToGet();
+        }
+        assertThat(statements).isPositive();
+    }
+
+    private int statementsToGet() {
+        AtomicInteger statements = new AtomicInteger();
+        SqlStatementCounter.start(statements);
+        try {
+            answerKeyCache.get(QUIZ_ID);
+        } finally {
+            SqlStatementCounter.stop();
+        }
+        return statements.get();
+    }
+}
@@ -0,0 +1,62 @@
+package com.quizapp.backend.service;
+
+import com.quizapp.backend.dto.request.AuthRequest;
+import com.quizapp.backend.dto.request.RegisterRequest;
+import com.quizapp.backend.exception.BadRequestException;
+import com.quizapp.backend.support.ContainerIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Presenting a refresh token that was already rotated revokes every session the user holds
+class AuthServiceTest extends ContainerIntegrationTest {
+
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private AuthService authService;
+
+    private String username;
+    private String email;
+
+    @BeforeEach
+    void seed() {
+        resetData();
+        username = "reuse-auth-" + RUN.incrementAndGet();
+        email = username + "@auth.test";
+        RegisterRequest register = new RegisterRequest();
+        register.setUsername(username);
+        register.setEmail(email);
+        register.setPassword("auth-password");
+        authService.registerUser(register);
+    }
+
+    @Test
+    void reusedRefreshTokenRevokesEverySession() throws Exception {
+        String first = login();
+        String second = login();
+        String rotated = authService.refreshAccessToken(first).getRefreshToken();
+
+        assertThatThrownBy(() -> authService.refreshAccessToken(first))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Refresh token has been revoked");
+
+        assertThatThrownBy(() -> authService.refreshAccessToken(rotated)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> authService.refreshAccessToken(second)).isInstanceOf(BadRequestException.class);
+        assertThat(redisTemplate.keys("refresh:*")).isEmpty();
+        assertThat(redisTemplate.keys("family:*")).isEmpty();
+        assertThat(redisTemplate.hasKey("user_refresh_tokens:" + username)).isFalse();
+    }
+
+    private String login() throws Exception {
+        AuthRequest request = new AuthRequest();
+        request.setEmail(email);
+        request.setPassword("auth-password");
+        return authService.authenticateUser(request).get().getRefreshToken();
+    }
+}
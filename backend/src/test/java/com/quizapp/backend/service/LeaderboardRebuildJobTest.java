@@ -0,0 +1,151 @@
+package com.quizapp.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizapp.backend.security.JwtTokenProvider;
+import com.quizapp.backend.support.ContainerIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The rebuild swaps boards and user hashes in together, and a node whose boards vanish from Redis goes back to
+// the database and has them rebuilt instead of serving empty rankings until the nightly run.
+class LeaderboardRebuildJobTest extends ContainerIntegrationTest {
+
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private LeaderboardRebuildJob rebuildJob;
+
+    @Autowired
+    private RedisLeaderboard redisLeaderboard;
+
+    private String suffix;
+    private long quizId;
+
+    @BeforeEach
+    void seed() throws Exception {
+        resetData();
+        suffix = "-board-" + RUN.incrementAndGet();
+        String admin = register("admin", "ADMIN");
+        quizId = perform(admin, json(post("/api/quizzes/create"), quiz())).get("id").asLong();
+        completeAttempt(register("taker0", "USER"), 0);
+        completeAttempt(register("taker1", "USER"), 1);
+    }
+
+    @Test
+    void rebuildSwapsStagedKeysAndDropsLeftovers() {
+        redisTemplate.opsForHash().put(RedisLeaderboard.userKey(-1L), "username", "gone");
+        redisTemplate.opsForZSet().add(RedisLeaderboard.GLOBAL_KEY, "-1", 5);
+
+        rebuildJob.rebuild();
+
+        assertThat(redisTemplate.opsForZSet().zCard(RedisLeaderboard.GLOBAL_KEY)).isEqualTo(2);
+        assertThat(redisTemplate.opsForZSet().zCard(RedisLeaderboard.quizKey(quizId))).isEqualTo(2);
+        assertThat(redisTemplate.hasKey(RedisLeaderboard.userKey(-1L))).isFalse();
+        assertThat(redisTemplate.keys("leaderboard:rebuild:*")).isEmpty();
+        for (String userId : redisTemplate.opsForZSet().range(RedisLeaderboard.GLOBAL_KEY, 0, -1)) {
+            assertThat(redisTemplate.opsForHash().get(RedisLeaderboard.userKey(Long.valueOf(userId)), "username"))
+                    .asString().endsWith(suffix);
+        }
+    }
+
+    @Test
+    void lostBoardsAreServedFromTheDatabaseAndRebuilt() throws Exception {
+        rebuildJob.rebuild();
+        assertThat(redisLeaderboard.isReady()).isTrue();
+
+        redisTemplate.delete(redisTemplate.keys("leaderboard:*"));
+        clearCaches();
+
+        JsonNode quizBoard = perform(register("viewer", "USER"), get("/api/leaderboard/quiz/" + quizId));
+        assertThat(quizBoard).hasSize(2);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!Boolean.TRUE.equals(redisTemplate.hasKey(RedisLeaderboard.GLOBAL_KEY)) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(redisTemplate.opsForZSet().zCard(RedisLeaderboard.quizKey(quizId))).isEqualTo(2);
+        assertThat(redisLeaderboard.isReady()).isTrue();
+    }
+
+    private String register(String name, String role) throws Exception {
+        String username = name + suffix;
+        mockMvc.perform(json(post("/api/auth/register"), Map.of(
+                        "username", username,
+                        "email", username + "@board.test",
+                        "password", "board-password",
+                        "role", role)))
+                .andExpect(status().isOk());
+        return username;
+    }
+
+    // Picks the same option of every question; question i has option i correct
+    private void completeAttempt(String username, int option) throws Exception {
+        JsonNode started = perform(username, json(post("/api/attempts/start"), Map.of("quizId", quizId)));
+        long attemptId = started.get("attempt").get("id").asLong();
+        List<Map<String, Object>> answers = new ArrayList<>();
+        for (JsonNode question : started.get("quiz").get("questions")) {
+            answers.add(Map.of(
+                    "questionId", question.get("id").asLong(),
+                    "selectedOptionIds", List.of(question.get("options").get(option).get("id").asLong())));
+        }
+        perform(username, json(post("/api/attempts/" + attemptId + "/submit"),
+                Map.of("attemptId", attemptId, "answers", answers)));
+    }
+
+    private JsonNode perform(String username, MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request.header("Authorization", "Bearer " + tokenProvider.generateToken(username)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Map<String, Object> quiz() {
+        List<Map<String, Object>> questions = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            List<Map<String, Object>> options = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                options.add(Map.of("text", "Option " + j, "isCorrect", j == i));
+            }
+            questions.add(Map.of(
+                    "text", "Question " + i,
+                    "questionType", "MULTIPLE_CHOICE",
+                    "difficulty", "MEDIUM",
+                    "options", options));
+        }
+        return Map.of(
+                "title", "Board quiz",
+                "description", "Leaderboard rebuild fixture",
+                "timeLimitMinutes", 10,
+                "category", "Science",
+                "questions", questions);
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+}
@@ -0,0 +1,143 @@
+package com.quizapp.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quizapp.backend.dto.QuestionResultDTO;
+import com.quizapp.backend.security.JwtTokenProvider;
+import com.quizapp.backend.support.ContainerIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The in-memory counters against what was actually graded: after a flush, questions.attempts and
+// correct_selections equal the user_answers rows of completed attempts, and nothing is left in memory.
+class QuestionStatsCollectorTest extends ContainerIntegrationTest {
+
+    private static final AtomicInteger RUN = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private QuestionStatsCollector questionStatsCollector;
+
+    private String suffix;
+
+    @BeforeEach
+    void seed() {
+        resetData();
+        // Whatever earlier tests left behind is for questions that no longer exist
+        questionStatsCollector.flush();
+        // Not the suffixes other tests use, so no principal cached by username carries over between classes
+        suffix = "-stats-" + RUN.incrementAndGet();
+    }
+
+    @Test
+    void flushedCountersMatchGradedAnswers() throws Exception {
+        String admin = register("admin", "ADMIN");
+        long quizId = perform(admin, json(post("/api/quizzes/create"), quiz())).get("id").asLong();
+        for (int option = 0; option < 3; option++) {
+            completeAttempt(register("taker" + option, "USER"), quizId, option);
+        }
+
+        questionStatsCollector.flush();
+
+        List<Map<String, Object>> mismatches = jdbcTemplate.queryForList(
+                "SELECT q.id, q.attempts, q.correct_selections, COUNT(a.id) AS answers, "
+                        + "COALESCE(SUM(a.is_correct), 0) AS correct_answers "
+                        + "FROM questions q LEFT JOIN user_answers a ON a.question_id = q.id "
+                        + "GROUP BY q.id, q.attempts, q.correct_selections "
+                        + "HAVING q.attempts <> COUNT(a.id) OR q.correct_selections <> COALESCE(SUM(a.is_correct), 0)");
+        assertThat(mismatches).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(attempts) FROM questions", Long.class)).isEqualTo(9);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(correct_selections) FROM questions", Long.class)).isEqualTo(3);
+        assertThat(questionStatsCollector.getPendingCount()).isZero();
+        assertThat(questionStatsCollector.getTrackedQuestionCount()).isZero();
+    }
+
+    @Test
+    void deletedQuestionIsDroppedOnFlush() {
+        questionStatsCollector.record(List.of(QuestionResultDTO.builder().questionId(-1L).correct(true).build()));
+        assertThat(questionStatsCollector.getTrackedQuestionCount()).isEqualTo(1);
+
+        questionStatsCollector.flush();
+
+        assertThat(questionStatsCollector.getPendingCount()).isZero();
+        assertThat(questionStatsCollector.getTrackedQuestionCount()).isZero();
+    }
+
+    private String register(String name, String role) throws Exception {
+        String username = name + suffix;
+        mockMvc.perform(json(post("/api/auth/register"), Map.of(
+                        "username", username,
+                        "email", username + "@stats.test",
+                        "password", "stats-password",
+                        "role", role)))
+                .andExpect(status().isOk());
+        return username;
+    }
+
+    // Picks the same option of every question; question i has option i correct
+    private void completeAttempt(String username, long quizId, int option) throws Exception {
+        JsonNode started = perform(username, json(post("/api/attempts/start"), Map.of("quizId", quizId)));
+        long attemptId = started.get("attempt").get("id").asLong();
+        List<Map<String, Object>> answers = new ArrayList<>();
+        for (JsonNode question : started.get("quiz").get("questions")) {
+            answers.add(Map.of(
+                    "questionId", question.get("id").asLong(),
+                    "selectedOptionIds", List.of(question.get("options").get(option).get("id").asLong())));
+        }
+        perform(username, json(post("/api/attempts/" + attemptId + "/submit"),
+                Map.of("attemptId", attemptId, "answers", answers)));
+    }
+
+    private JsonNode perform(String username, MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request.header("Authorization", "Bearer " + tokenProvider.generateToken(username)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private Map<String, Object> quiz() {
+        List<Map<String, Object>> questions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            List<Map<String, Object>> options = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                options.add(Map.of("text", "Option " + j, "isCorrect", j == i));
+            }
+            questions.add(Map.of(
+                    "text", "Question " + i,
+                    "questionType", "MULTIPLE_CHOICE",
+                    "difficulty", "MEDIUM",
+                    "options", options));
+        }
+        return Map.of(
+                "title", "Stats quiz",
+                "description", "Question stats fixture",
+                "timeLimitMinutes", 10,
+                "category", "Science",
+                "questions", questions);
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+}
@@ -0,0 +1,126 @@
+package com.quizapp.backend.support;
+
+import com.quizapp.backend.model.UserAnswer;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Base for integration tests that need the real schema and Redis scripts: one MySQL and one Redis container
+// shared by every subclass (and one cached application context). Skipped without a Docker daemon, like the
+// load test; to run without Docker, point it at a disposable MySQL 8 and Redis 7 instead (everything in them is
+// deleted between tests):
+//   mvn test -Dit.datasource.url=jdbc:mysql://localhost:3306/quiz_it -Dit.datasource.username=root
+//            -Dit.datasource.password= -Dit.redis.host=localhost -Dit.redis.port=6379
+@SpringBootTest(properties = {
+        "app.jwt-secret=aW50ZWdyYXRpb24tdGVzdC1zZWNyZXQtaW50ZWdyYXRpb24tdGVzdC1zZWNyZXQtaW50ZWdyYXRpb24=",
+        "app.security.bcrypt.strength=4",
+        "spring.data.redis.ssl.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=WARN",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "app.rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+public abstract class ContainerIntegrationTest {
+
+    private static final String EXTERNAL_DATASOURCE_URL = System.getProperty("it.datasource.url");
+
+    // Started once for the whole run and stopped by Testcontainers when the JVM exits
+    private static final MySQLContainer<?> MYSQL;
+    private static final GenericContainer<?> REDIS;
+
+    static {
+        if (EXTERNAL_DATASOURCE_URL == null && DockerClientFactory.instance().isDockerAvailable()) {
+            MYSQL = new MySQLContainer<>("mysql:8.0");
+            REDIS = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+            MYSQL.start();
+            REDIS.start();
+        } else {
+            MYSQL = null;
+            REDIS = null;
+        }
+    }
+
+    // Runs before the application context is built, so a skipped class never tries to connect
+    @BeforeAll
+    static void requireServices() {
+        assumeTrue(MYSQL != null || EXTERNAL_DATASOURCE_URL != null,
+                "Docker is not available and no it.datasource.url is set");
+    }
+
+    @DynamicPropertySource
+    static void connectionProperties(DynamicPropertyRegistry registry) {
+        if (MYSQL != null) {
+            registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+            registry.add("spring.datasource.username", MYSQL::getUsername);
+            registry.add("spring.datasource.password", MYSQL::getPassword);
+            registry.add("spring.data.redis.host", REDIS::getHost);
+            registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+        } else {
+            registry.add("spring.datasource.url", () -> EXTERNAL_DATASOURCE_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("it.datasource.username", "root"));
+            registry.add("spring.datasource.password", () -> System.getProperty("it.datasource.password", ""));
+            registry.add("spring.data.redis.host", () -> System.getProperty("it.redis.host", "localhost"));
+            registry.add("spring.data.redis.port", () -> System.getProperty("it.redis.port", "6379"));
+        }
+        registry.add("spring.data.redis.username", () -> "");
+        registry.add("spring.data.redis.password", () -> "");
+    }
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected StringRedisTemplate redisTemplate;
+
+    @Autowired
+    protected CacheManager cacheManager;
+
+    // Empties every table and Redis. Rows are deleted rather than truncated so ids keep increasing and
+    // nothing cached by id can match a new row; the user_answers id blocks are kept for the same reason.
+    protected void resetData() {
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT table_name FROM information_schema.tables WHERE table_schema = DATABASE() "
+                        + "AND table_type = 'BASE TABLE' AND table_name <> ?", String.class, UserAnswer.ID_BLOCK_TABLE);
+        // FOREIGN_KEY_CHECKS is per session, so everything has to go through one connection
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+                try {
+                    for (String table : tables) {
+                        statement.execute("DELETE FROM `" + table + "`");
+                    }
+                } finally {
+                    statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+                }
+            }
+            return null;
+        });
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        clearCaches();
+    }
+
+    protected void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+    }
+}
@@ -0,0 +1,85 @@
+package com.quizapp.backend.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Asserts how many SQL statements one request issues, using the per-route count that
+// SqlStatementMetricsFilter records (principal lookup in the JWT filter included).
+// Endpoints are named like the uri tag: "GET /api/quizzes/{quizId}".
+public class SqlStatementBudget {
+
+    private static final String METER = "http.server.requests.sql.statements";
+
+    private final MeterRegistry registry;
+    private final Map<String, Integer> budgets;
+
+    public SqlStatementBudget(MeterRegistry registry, Map<String, Integer> budgets) {
+        this.registry = registry;
+        this.budgets = budgets;
+    }
+
+    @FunctionalInterface
+    public interface Request {
+        void perform() throws Exception;
+    }
+
+    // Runs the request and fails if it issued more statements than the endpoint's budget; returns the count
+    public long assertWithinBudget(String endpoint, Request request) throws Exception {
+        Integer budget = budgets.get(endpoint);
+        if (budget == null) {
+            throw new AssertionError("No statement budget declared for " + endpoint);
+        }
+        long statements = measure(endpoint, request);
+        if (statements > budget) {
+            throw new AssertionError(endpoint + " issued " + statements + " SQL statements, budget is " + budget
+                    + ". Fix the extra queries, or raise the budget if the new ones are intended.");
+        }
+        return statements;
+    }
+
+    public long measure(String endpoint, Request request) throws Exception {
+        String[] parts = endpoint.split(" ", 2);
+        long countBefore = summary(parts[0], parts[1]).count();
+        double totalBefore = summary(parts[0], parts[1]).totalAmount();
+
+        request.perform();
+
+        DistributionSummary after = summary(parts[0], parts[1]);
+        if (after.count() != countBefore + 1) {
+            throw new AssertionError("Expected one request to " + endpoint + " but recorded "
+                    + (after.count() - countBefore) + "; check the method and route template");
+        }
+        return Math.round(after.totalAmount() - totalBefore);
+    }
+
+    // Every handler in the given package, so a new endpoint can't land without a budget
+    public static Set<String> endpoints(RequestMappingHandlerMapping handlerMapping, String basePackage) {
+        Set<String> endpoints = new TreeSet<>();
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            if (!entry.getValue().getBeanType().getPackageName().startsWith(basePackage)) {
+                continue;
+            }
+            RequestMappingInfo info = entry.getKey();
+            info.getMethodsCondition().getMethods().forEach(method ->
+                    info.getPatternValues().forEach(pattern -> endpoints.add(method.name() + " " + pattern)));
+        }
+        return endpoints;
+    }
+
+    private DistributionSummary summary(String method, String uri) {
+        // Same builder as the filter, so this finds (or pre-registers) the filter's meter
+        return DistributionSummary.builder(METER)
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", uri)
+                .serviceLevelObjectives(1, 5, 10, 25, 50, 100)
+                .register(registry);
+    }
+}